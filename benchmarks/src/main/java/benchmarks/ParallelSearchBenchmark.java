@@ -0,0 +1,65 @@
+package benchmarks;
+
+import chess.ChessMatch;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// time to depth of the lazy SMP search; compare the threads rows against threads=1 for the speedup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    @Param({"6"})
+    private int depth;
+
+    private ChessMatch chessMatch;
+    private TranspositionTable table;
+    private ParallelSearch search;
+
+    @Setup
+    public void setup() {
+        this.chessMatch = Positions.middlegame();
+        this.table = new TranspositionTable(64);
+        this.search = new ParallelSearch(this.threads, this.table);
+    }
+
+    // every measurement starts from an empty table, otherwise later iterations would just read earlier results
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        this.table.clear();
+    }
+
+    @Benchmark
+    public SearchResult timeToDepth() {
+        return this.search.search(this.chessMatch, SearchLimits.depth(this.depth));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.search.close();
+    }
+}
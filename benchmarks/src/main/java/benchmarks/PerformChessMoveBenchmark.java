@@ -0,0 +1,55 @@
+package benchmarks;
+
+import chess.ChessMatch;
+import chess.ChessMove;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerformChessMoveBenchmark {
+
+    private List<ChessMove> opening;
+
+    @Setup
+    public void setup() {
+        // the same opening replayed with performChessMove; newMatch is the construction cost to subtract
+        ChessMatch chessMatch = new ChessMatch();
+        this.opening = new ArrayList<>();
+        for (String text : Positions.middlegameMoves()) {
+            ChessMove move = chessMatch.legalMoves().stream().filter(x -> x.toString().equals(text)).findFirst().get();
+            this.opening.add(move);
+            chessMatch.performChessMove(move.getSource(), move.getTarget());
+        }
+    }
+
+    @Benchmark
+    public ChessMatch newMatch() {
+        return new ChessMatch();
+    }
+
+    @Benchmark
+    public ChessMatch playOpening() {
+        ChessMatch chessMatch = new ChessMatch();
+        for (ChessMove move : this.opening) {
+            chessMatch.performChessMove(move.getSource(), move.getTarget());
+        }
+        return chessMatch;
+    }
+}
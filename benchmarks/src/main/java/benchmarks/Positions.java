@@ -0,0 +1,98 @@
+package benchmarks;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+
+import java.util.Random;
+
+public final class Positions {
+
+    private static final String[] RUY_LOPEZ = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7", "f1e1",
+            "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6a5", "b3c2", "c7c5", "d2d4", "d8c7"
+    };
+
+    private static final String[] FOOLS_MATE = {"f2f3", "e7e5", "g2g4", "d8h4"};
+
+    private static final int ENDGAME_PIECES = 8;
+
+    private Positions() {
+    }
+
+    public static String[] middlegameMoves() {
+        return RUY_LOPEZ.clone();
+    }
+
+    public static ChessMatch middlegame() {
+        return play(RUY_LOPEZ);
+    }
+
+    public static ChessMatch checkmate() {
+        return play(FOOLS_MATE);
+    }
+
+    // seeded random play down to a few pieces, so every run benchmarks the same endgame
+    public static ChessMatch endgame() {
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        for (long seed = 1; ; seed++) {
+            Random random = new Random(seed);
+            ChessMatch chessMatch = new ChessMatch();
+            for (int ply = 0; ply < 400; ply++) {
+                int count = chessMatch.legalMoves(moves);
+                if (count == 0) {
+                    break;
+                }
+                if (pieceCount(chessMatch) <= ENDGAME_PIECES) {
+                    return chessMatch;
+                }
+                chessMatch.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+    }
+
+    public static ChessMatch named(String name) {
+        switch (name) {
+            case "middlegame":
+                return middlegame();
+            case "endgame":
+                return endgame();
+            case "checkmate":
+                return checkmate();
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+
+    // played with makeMove so the side to move is the one to examine, even after a mate
+    public static ChessMatch play(String[] moves) {
+        ChessMatch chessMatch = new ChessMatch();
+        int[] legal = new int[ChessMatch.MAX_MOVES];
+        for (String text : moves) {
+            int count = chessMatch.legalMoves(legal);
+            int move = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Move.toString(legal[i]).startsWith(text)) {
+                    move = legal[i];
+                }
+            }
+            if (move == Move.NONE) {
+                throw new IllegalArgumentException("Illegal move: " + text);
+            }
+            chessMatch.makeMove(move);
+        }
+        return chessMatch;
+    }
+
+    private static int pieceCount(ChessMatch chessMatch) {
+        int count = 0;
+        for (ChessPiece[] row : chessMatch.getPieces()) {
+            for (ChessPiece piece : row) {
+                if (piece != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import application.UI;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    private ChessMatch chessMatch;
+    private ChessPiece[][] pieces;
+    private boolean[][] possibleMoves;
+    private PrintStream out;
+
+    @Setup
+    public void setup() {
+        this.chessMatch = Positions.middlegame();
+        this.pieces = this.chessMatch.getPieces();
+        this.possibleMoves = new boolean[8][8];
+        this.out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(this.out);
+    }
+
+    @Benchmark
+    public ChessPiece[][] getPieces() {
+        return this.chessMatch.getPieces();
+    }
+
+    @Benchmark
+    public void printBoard() {
+        UI.printBoard(this.pieces, this.possibleMoves);
+    }
+}
@@ -0,0 +1,53 @@
+package chess;
+
+import benchmarks.Positions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// lives in the chess package to reach the package-private check tests of ChessMatch
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckBenchmark {
+
+    @Param({"middlegame", "endgame", "checkmate"})
+    private String position;
+
+    private ChessMatch chessMatch;
+    private int[] moves;
+
+    @Setup
+    public void setup() {
+        this.chessMatch = Positions.named(this.position);
+        this.moves = new int[ChessMatch.MAX_MOVES];
+    }
+
+    @Benchmark
+    public boolean testCheck() {
+        return this.chessMatch.testCheck(this.chessMatch.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public boolean testCheckMate() {
+        return this.chessMatch.testCheckMate(this.chessMatch.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        return this.chessMatch.legalMoves(this.moves);
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+import boardgame.Position;
+import chess.pieces.Bishop;
+import chess.pieces.King;
+import chess.pieces.Knight;
+import chess.pieces.Pawn;
+import chess.pieces.Queen;
+import chess.pieces.Rook;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChessBoardTest {
+
+    // the incremental attack maps always equal the attacks worked out from scratch, whatever is placed or removed
+    @Test
+    void attackMapsFollowEveryChange() {
+        Random random = new Random(3L);
+        ChessBoard board = new ChessBoard();
+        for (int step = 0; step < 20000; step++) {
+            int square = random.nextInt(64);
+            Position position = new Position(ChessBoard.row(square), ChessBoard.column(square));
+            if (board.isOccupied(square)) {
+                board.removePiece(position);
+            } else if (Long.bitCount(board.getOccupied()) < 24) {
+                board.placePiece(piece(board, random), position);
+            }
+            for (Color color : Color.values()) {
+                assertEquals(attacks(board, color), board.getAttacks(color), "step " + step);
+            }
+        }
+    }
+
+    private static ChessPiece piece(ChessBoard board, Random random) {
+        Color color = random.nextBoolean() ? Color.WHITE : Color.BLACK;
+        switch (random.nextInt(6)) {
+            case 0:
+                return new Pawn(board, color, null);
+            case 1:
+                return new Knight(board, color);
+            case 2:
+                return new Bishop(board, color);
+            case 3:
+                return new Rook(board, color);
+            case 4:
+                return new Queen(board, color);
+            default:
+                return new King(board, color, null);
+        }
+    }
+
+    private static long attacks(ChessBoard board, Color color) {
+        long attacks = 0L;
+        for (int square = 0; square < 64; square++) {
+            if ((board.attackersTo(square, board.getOccupied()) & board.getOccupied(color)) != 0) {
+                attacks |= ChessBoard.bit(square);
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,122 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChessMatchTest {
+
+    private static final String[] POSITIONS = {
+            Fen.INITIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+    };
+
+    @Test
+    void castlesNeitherOutOfNorThroughCheck() {
+        // the rook on e8 checks the king, the one on f8 guards f1 and the bishop on g4 guards d1
+        assertThrows(ChesException.class, () -> play(new ChessMatch("1k2r3/8/8/8/8/8/8/R3K2R w KQ - 0 1"), "e1g1"));
+        assertThrows(ChesException.class, () -> play(new ChessMatch("1k2r3/8/8/8/8/8/8/R3K2R w KQ - 0 1"), "e1c1"));
+        assertThrows(ChesException.class, () -> play(new ChessMatch("1k3r2/8/8/8/8/8/8/R3K2R w KQ - 0 1"), "e1g1"));
+        assertThrows(ChesException.class, () -> play(new ChessMatch("1k6/8/8/8/6b1/8/8/R3K2R w KQ - 0 1"), "e1c1"));
+
+        // only the squares the king crosses matter, so b1 may be attacked
+        ChessMatch chessMatch = new ChessMatch("1r1k4/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        play(chessMatch, "e1c1");
+        assertEquals("1r1k4/8/8/8/8/8/8/2KR3R b - - 1 1", Fen.write(chessMatch));
+    }
+
+    // performChessMove accepts exactly the moves legalMoves generates, in every position of random games
+    @Test
+    void performChessMoveAcceptsTheLegalMoves() {
+        Random random = new Random(11L);
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        for (String fen : new String[] {Fen.INITIAL, "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"}) {
+            for (int game = 0; game < 5; game++) {
+                ChessMatch chessMatch = new ChessMatch(fen);
+                while (chessMatch.getTurn() < 120 && !chessMatch.isCheckmate() && !chessMatch.isStalemate()) {
+                    int count = chessMatch.legalMoves(moves);
+                    Set<String> legal = new HashSet<>();
+                    for (int i = 0; i < count; i++) {
+                        legal.add(ChessMove.fromMove(moves[i] & 0xFFF).toString());
+                    }
+                    assertEquals(legal, accepted(chessMatch), Fen.write(chessMatch));
+                    chessMatch.performChessMove(moves[random.nextInt(count)]);
+                }
+            }
+        }
+    }
+
+    // undoLastMove walks random games back to the start position exactly, and redo replays them exactly
+    @Test
+    void undoLastMoveAndRedoAreExact() {
+        Random random = new Random(20240501L);
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        for (String fen : POSITIONS) {
+            for (int game = 0; game < 20; game++) {
+                ChessMatch chessMatch = new ChessMatch(fen);
+                List<String> positions = new ArrayList<>();
+                List<Long> keys = new ArrayList<>();
+                positions.add(Fen.write(chessMatch));
+                keys.add(chessMatch.getZobristKey());
+                while (positions.size() < 200 && !chessMatch.isCheckmate() && !chessMatch.isStalemate() && !chessMatch.isDraw()) {
+                    int count = chessMatch.legalMoves(moves);
+                    chessMatch.performChessMove(moves[random.nextInt(count)]);
+                    positions.add(Fen.write(chessMatch));
+                    keys.add(chessMatch.getZobristKey());
+                }
+
+                for (int ply = positions.size() - 2; ply >= 0; ply--) {
+                    chessMatch.undoLastMove();
+                    assertEquals(positions.get(ply), Fen.write(chessMatch));
+                    assertEquals(keys.get(ply), chessMatch.getZobristKey());
+                }
+                assertFalse(chessMatch.canUndo());
+                for (int ply = 1; ply < positions.size(); ply++) {
+                    chessMatch.redo();
+                    assertEquals(positions.get(ply), Fen.write(chessMatch));
+                    assertEquals(keys.get(ply), chessMatch.getZobristKey());
+                }
+                assertFalse(chessMatch.canRedo());
+            }
+        }
+    }
+
+    // a move outside the piece's possibleMovesMask never gets past the validation, so only those are tried
+    private static Set<String> accepted(ChessMatch chessMatch) {
+        Set<String> accepted = new HashSet<>();
+        for (int from = 0; from < 64; from++) {
+            ChessPiece piece = chessMatch.getPiece(from);
+            if (piece == null || piece.getColor() != chessMatch.getCurrentPlayer()) {
+                continue;
+            }
+            long targets = piece.possibleMovesMask();
+            while (targets != 0) {
+                ChessMove move = ChessMove.fromMove(Move.encode(from, Long.numberOfTrailingZeros(targets)));
+                targets &= targets - 1;
+                try {
+                    new ChessMatch(chessMatch).performChessMove(move.getSource(), move.getTarget());
+                    accepted.add(move.toString());
+                } catch (ChesException e) {
+                    // it would leave the king in check
+                }
+            }
+        }
+        return accepted;
+    }
+
+    private static void play(ChessMatch chessMatch, String move) {
+        chessMatch.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+    }
+}
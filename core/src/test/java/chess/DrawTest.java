@@ -0,0 +1,113 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrawTest {
+
+    private static final String[] KNIGHT_SHUFFLE = {"g1f3", "g8f6", "f3g1", "f6g8"};
+    private static final String[] KING_SHUFFLE = {"e1f1", "e8f8", "f1e1", "f8e8"};
+
+    @Test
+    void thirdOccurrenceOfAPositionIsADraw() {
+        ChessMatch chessMatch = new ChessMatch();
+        play(chessMatch, KNIGHT_SHUFFLE);
+        assertTrue(chessMatch.isRepetition());
+        assertFalse(chessMatch.isThreefoldRepetition());
+        assertFalse(chessMatch.isDraw());
+
+        play(chessMatch, KNIGHT_SHUFFLE);
+        assertTrue(chessMatch.isThreefoldRepetition());
+        assertEquals(DrawType.THREEFOLD_REPETITION, chessMatch.getDraw());
+
+        chessMatch.undoLastMove();
+        assertNull(chessMatch.getDraw());
+        chessMatch.redo();
+        assertEquals(DrawType.THREEFOLD_REPETITION, chessMatch.getDraw());
+    }
+
+    // the kings come back to their squares without their castling rights, so that is a different position
+    @Test
+    void lostCastlingRightsMakeANewPosition() {
+        ChessMatch chessMatch = new ChessMatch("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        play(chessMatch, KING_SHUFFLE);
+        assertFalse(chessMatch.isRepetition());
+        play(chessMatch, KING_SHUFFLE);
+        assertTrue(chessMatch.isRepetition());
+        assertFalse(chessMatch.isDraw());
+        play(chessMatch, KING_SHUFFLE);
+        assertEquals(DrawType.THREEFOLD_REPETITION, chessMatch.getDraw());
+    }
+
+    // the count starts again after a pawn move
+    @Test
+    void pawnMovesStartANewWindow() {
+        ChessMatch chessMatch = new ChessMatch();
+        play(chessMatch, KNIGHT_SHUFFLE);
+        play(chessMatch, "e2e4", "e7e5");
+        play(chessMatch, KNIGHT_SHUFFLE);
+        assertTrue(chessMatch.isRepetition());
+        assertFalse(chessMatch.isDraw());
+        play(chessMatch, KNIGHT_SHUFFLE);
+        assertEquals(DrawType.THREEFOLD_REPETITION, chessMatch.getDraw());
+    }
+
+    @Test
+    void hundredPliesWithoutCaptureOrPawnMoveIsADraw() {
+        String fen = "4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80";
+        ChessMatch chessMatch = new ChessMatch(fen);
+        play(chessMatch, "a1a2");
+        assertEquals(100, chessMatch.getHalfmoveClock());
+        assertEquals(DrawType.FIFTY_MOVE_RULE, chessMatch.getDraw());
+
+        chessMatch = new ChessMatch(fen);
+        play(chessMatch, "e2e4");
+        assertEquals(0, chessMatch.getHalfmoveClock());
+        assertFalse(chessMatch.isDraw());
+
+        assertEquals(DrawType.FIFTY_MOVE_RULE, new ChessMatch("4k3/8/8/8/8/8/4P3/R3K3 w - - 100 80").getDraw());
+
+        // a mate on the hundredth ply still wins
+        chessMatch = new ChessMatch("k7/8/1K6/8/8/8/8/7R w - - 99 80");
+        play(chessMatch, "h1h8");
+        assertTrue(chessMatch.isCheckmate());
+        assertFalse(chessMatch.isDraw());
+    }
+
+    @Test
+    void materialThatCannotMateIsADraw() {
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/4KN2 w - - 0 1");
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/2B1K3 w - - 0 1");
+        assertInsufficient(true, "4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1");
+        assertInsufficient(true, "4k3/8/8/8/8/8/8/2B1K1B1 w - - 0 1");
+        assertInsufficient(false, "2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1");
+        assertInsufficient(false, "4k3/8/8/8/8/8/8/2B1KN2 w - - 0 1");
+        assertInsufficient(false, "4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        assertInsufficient(false, "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+        assertInsufficient(false, "4k3/8/8/8/8/8/8/R3K3 w - - 0 1");
+
+        // taking the last rook leaves a knight that cannot mate
+        ChessMatch chessMatch = new ChessMatch("4k3/8/8/8/8/8/4r3/4KN2 w - - 0 1");
+        assertFalse(chessMatch.isDraw());
+        play(chessMatch, "e1e2");
+        assertEquals(DrawType.INSUFFICIENT_MATERIAL, chessMatch.getDraw());
+    }
+
+    private static void assertInsufficient(boolean expected, String fen) {
+        ChessMatch chessMatch = new ChessMatch(fen);
+        assertEquals(expected, chessMatch.isInsufficientMaterial(), fen);
+        assertEquals(expected ? DrawType.INSUFFICIENT_MATERIAL : null, chessMatch.getDraw(), fen);
+    }
+
+    private static void play(ChessMatch chessMatch, String... moves) {
+        for (String move : moves) {
+            chessMatch.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                    new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+        }
+    }
+}
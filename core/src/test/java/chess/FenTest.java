@@ -0,0 +1,100 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FenTest {
+
+    private static final String[] POSITIONS = {
+            Fen.INITIAL,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+    };
+
+    @Test
+    void writesWhatItReads() {
+        for (String fen : POSITIONS) {
+            assertEquals(fen, Fen.write(new ChessMatch(fen)));
+        }
+    }
+
+    // the same text into a builder that already holds some, and as ASCII into a buffer from its position on
+    @Test
+    void writesIntoBuildersAndBuffers() {
+        for (String fen : POSITIONS) {
+            ChessMatch chessMatch = new ChessMatch(fen);
+            StringBuilder sb = new StringBuilder("fen ");
+            Fen.write(chessMatch, sb);
+            assertEquals("fen " + fen, sb.toString());
+
+            ByteBuffer buffer = ByteBuffer.allocate(100);
+            buffer.position(3);
+            assertEquals(fen.length(), Fen.write(chessMatch, buffer));
+            assertEquals(3 + fen.length(), buffer.position());
+            assertEquals(fen, new String(buffer.array(), 3, fen.length(), StandardCharsets.US_ASCII));
+            assertEquals(fen, Fen.write(Fen.read(buffer, 3, buffer.position())));
+        }
+    }
+
+    @Test
+    void rejectsPieceCountsNoGameReaches() {
+        assertThrows(ChesException.class, () -> new ChessMatch("NNNNNNNN/NNN5/8/8/8/8/8/K6k w - - 0 1"));
+        assertThrows(ChesException.class, () -> new ChessMatch("k7/8/8/8/8/P7/PPPPPPPP/K7 w - - 0 1"));
+        assertThrows(ChesException.class, () -> new ChessMatch("k7/8/8/8/8/8/8/KK6 w - - 0 1"));
+        assertThrows(ChesException.class, () -> new ChessMatch("k7/8/8/8/8/NN6/PPPPPPPP/KN6 w - - 0 1"));
+        new ChessMatch("QQQQQQQQ/Q7/8/8/8/8/8/K6k b - - 0 1");
+    }
+
+    @Test
+    void checkmateHasTheMatedSideToMove() {
+        ChessMatch chessMatch = new ChessMatch();
+        for (String move : new String[] {"f2f3", "e7e5", "g2g4", "d8h4"}) {
+            chessMatch.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                    new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+        }
+        assertTrue(chessMatch.isCheckmate());
+        String fen = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+        assertEquals(fen, Fen.write(chessMatch));
+
+        ChessMatch read = new ChessMatch(fen);
+        assertTrue(read.isCheckmate());
+        assertEquals(chessMatch.getCurrentPlayer(), read.getCurrentPlayer());
+        assertEquals(chessMatch.getZobristKey(), read.getZobristKey());
+        assertEquals(fen, Fen.write(read));
+    }
+
+    // every position of random games, mates and draws included, reads back to the same position
+    @Test
+    void randomGamesRoundTrip() {
+        Random random = new Random(7L);
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        int mates = 0;
+        for (int game = 0; game < 200; game++) {
+            ChessMatch chessMatch = new ChessMatch();
+            while (true) {
+                String fen = Fen.write(chessMatch);
+                ChessMatch read = new ChessMatch(fen);
+                assertEquals(fen, Fen.write(read));
+                assertEquals(chessMatch.getZobristKey(), read.getZobristKey());
+                assertEquals(chessMatch.isCheckmate(), read.isCheckmate());
+                assertEquals(chessMatch.getCurrentPlayer(), read.getCurrentPlayer());
+                if (chessMatch.isCheckmate() || chessMatch.isStalemate() || chessMatch.getTurn() > 400) {
+                    break;
+                }
+                int count = chessMatch.legalMoves(moves);
+                chessMatch.performChessMove(moves[random.nextInt(count)]);
+            }
+            mates += chessMatch.isCheckmate() ? 1 : 0;
+        }
+        assertTrue(mates > 0);
+    }
+}
@@ -0,0 +1,138 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionSnapshotTest {
+
+    private static final int E2 = ChessBoard.square(6, 4);
+    private static final int E4 = ChessBoard.square(4, 4);
+    private static final int A8 = ChessBoard.square(0, 0);
+
+    @Test
+    void everyPlayedMoveAndTakebackPublishesTheNextVersion() {
+        ChessMatch chessMatch = new ChessMatch();
+        PositionSnapshot initial = chessMatch.getSnapshot();
+        assertEquals(0L, initial.getVersion());
+        assertEquals(Move.NONE, initial.getLastMove());
+        assertEquals(chessMatch.getZobristKey(), initial.getZobristKey());
+
+        play(chessMatch, "e2e4");
+        PositionSnapshot played = chessMatch.getSnapshot();
+        assertEquals(1L, played.getVersion());
+        assertEquals(Move.encode(E2, E4), played.getLastMove());
+        assertEquals(Color.BLACK, played.getCurrentPlayer());
+
+        // a refused move and the search's own moves publish nothing
+        assertThrows(ChesException.class, () -> play(chessMatch, "e4e5"));
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        chessMatch.legalMoves(moves);
+        chessMatch.makeMove(moves[0]);
+        chessMatch.undoMove();
+        assertSame(played, chessMatch.getSnapshot());
+
+        chessMatch.undoLastMove();
+        PositionSnapshot undone = chessMatch.getSnapshot();
+        assertEquals(2L, undone.getVersion());
+        assertEquals(initial.toString(), undone.toString());
+        assertEquals(initial.getZobristKey(), undone.getZobristKey());
+
+        chessMatch.redo();
+        assertEquals(3L, chessMatch.getSnapshot().getVersion());
+        assertEquals(played.toString(), chessMatch.getSnapshot().toString());
+    }
+
+    // a snapshot keeps showing its own position however the match goes on
+    @Test
+    void snapshotsNeverChange() {
+        ChessMatch chessMatch = new ChessMatch("7k/P7/8/8/8/8/6K1/8 w - - 0 1");
+        PositionSnapshot before = chessMatch.getSnapshot();
+        String board = before.toString();
+
+        play(chessMatch, "a7a8");
+        PositionSnapshot queen = chessMatch.getSnapshot();
+        assertEquals(PieceType.QUEEN, queen.getType(A8));
+        assertTrue(queen.isCheck());
+
+        chessMatch.replacePromotedPiece("N");
+        PositionSnapshot knight = chessMatch.getSnapshot();
+        assertEquals(queen.getVersion() + 1, knight.getVersion());
+        assertEquals(PieceType.KNIGHT, knight.getType(A8));
+        assertEquals(Color.WHITE, knight.getColor(A8));
+
+        play(chessMatch, "h8h7");
+        assertEquals(board, before.toString());
+        assertEquals(PieceType.PAWN, before.getType(ChessBoard.square(1, 0)));
+        assertTrue(before.isEmpty(A8));
+        assertNull(before.getColor(A8));
+        assertEquals(PieceType.QUEEN, queen.getType(A8));
+        assertTrue(queen.isCheck());
+        assertEquals(Color.BLACK, queen.getCurrentPlayer());
+    }
+
+    // a reader on another thread only ever sees snapshots the match published, in order; a promotion to another piece
+    // than the queen publishes twice, so only the last snapshot of each move is kept here
+    @Test
+    void readersSeeWholePublishedPositions() throws InterruptedException {
+        ChessMatch chessMatch = new ChessMatch();
+        Map<Long, PositionSnapshot> published = new HashMap<>();
+        List<PositionSnapshot> seen = new ArrayList<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!stop.get()) {
+                PositionSnapshot snapshot = chessMatch.getSnapshot();
+                if (seen.isEmpty() || seen.get(seen.size() - 1) != snapshot) {
+                    seen.add(snapshot);
+                }
+            }
+        });
+
+        publish(published, chessMatch);
+        reader.start();
+        Random random = new Random(7L);
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            while (!chessMatch.isCheckmate() && !chessMatch.isStalemate() && !chessMatch.isDraw() && chessMatch.getTurn() < 100) {
+                int count = chessMatch.legalMoves(moves);
+                chessMatch.performChessMove(moves[random.nextInt(count)]);
+                publish(published, chessMatch);
+            }
+            while (chessMatch.canUndo()) {
+                chessMatch.undoLastMove();
+                publish(published, chessMatch);
+            }
+        }
+        stop.set(true);
+        reader.join();
+
+        long last = -1;
+        for (PositionSnapshot snapshot : seen) {
+            assertTrue(snapshot.getVersion() > last);
+            if (published.containsKey(snapshot.getVersion())) {
+                assertSame(published.get(snapshot.getVersion()), snapshot);
+            }
+            last = snapshot.getVersion();
+        }
+    }
+
+    private static void publish(Map<Long, PositionSnapshot> published, ChessMatch chessMatch) {
+        published.put(chessMatch.getSnapshot().getVersion(), chessMatch.getSnapshot());
+    }
+
+    private static void play(ChessMatch chessMatch, String move) {
+        chessMatch.performChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+                new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+    }
+}
@@ -0,0 +1,76 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StaticExchangeTest {
+
+    @Test
+    void capturesOfUndefendedAndDefendedPieces() {
+        assertExchange(100, "1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1", "e1e5");
+        assertExchange(0, "4k3/8/3p4/4p3/3P4/8/8/4K3 w - - 0 1", "d4e5");
+        // knight for pawn: everything on e5 is traded off, and white stops once its knight is gone
+        assertExchange(100 - 320, "1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1", "d3e5");
+        assertExchange(320 - 500, "4k3/8/2p5/3n4/8/8/8/3RK3 w - - 0 1", "d1d5");
+    }
+
+    @Test
+    void quietMovesScoreWhatTheyHang() {
+        assertExchange(-900, "3k4/8/3p4/8/8/8/8/4QK2 w - - 0 1", "e1e5");
+        assertExchange(0, "3k4/8/3p4/8/8/8/8/4QK2 w - - 0 1", "e1e4");
+    }
+
+    // a slider behind the first capturer takes part once the piece in front has gone
+    @Test
+    void piecesBehindTheCapturerJoinIn() {
+        assertExchange(100, "3rk3/8/8/3p4/8/8/3R4/3RK3 w - - 0 1", "d2d5");
+        assertExchange(100 - 500, "3rk3/8/8/3p4/8/8/3R4/4K3 w - - 0 1", "d2d5");
+        assertExchange(100, "3rk3/8/8/3p4/8/8/3R4/3QK3 w - - 0 1", "d2d5");
+        assertExchange(100 - 330 + 100, "4k3/8/4p3/3p4/8/1B6/Q7/4K3 w - - 0 1", "b3d5");
+    }
+
+    // the king only takes when nothing defends the square any more
+    @Test
+    void theKingTakesLast() {
+        assertExchange(100 - 500, "3k4/3p4/8/8/8/8/8/3RK3 w - - 0 1", "d1d7");
+        assertExchange(100, "3k4/3p4/8/8/8/8/3R4/3RK3 w - - 0 1", "d2d7");
+    }
+
+    @Test
+    void enPassantAndPromotions() {
+        assertExchange(100, "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6");
+        assertExchange(100 - 100, "4k3/2p5/8/3pP3/8/8/8/4K3 w - d6 0 1", "e5d6");
+        // the new queen is lost to the rook, so only the pawn is gone
+        assertExchange(-100, "3r3k/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7e8q");
+        assertExchange(500 + 900 - 100, "3r3k/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7d8q");
+        assertExchange(500 + 320 - 100, "3r3k/4P3/8/8/8/8/8/4K3 w - - 0 1", "e7d8n");
+    }
+
+    @Test
+    void winningCapturesAreTheOnesThatGainMaterial() {
+        ChessMatch chessMatch = new ChessMatch("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+        assertFalse(chessMatch.isWinningCapture(move(chessMatch, "d3e5")));
+        chessMatch = new ChessMatch("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+        assertTrue(chessMatch.isWinningCapture(move(chessMatch, "e1e5")));
+        assertFalse(chessMatch.isWinningCapture(move(chessMatch, "e1e4")));
+    }
+
+    private static void assertExchange(int expected, String fen, String move) {
+        ChessMatch chessMatch = new ChessMatch(fen);
+        assertEquals(expected, chessMatch.staticExchange(move(chessMatch, move)), fen + " " + move);
+    }
+
+    private static int move(ChessMatch chessMatch, String move) {
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        int count = chessMatch.legalMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.toString(moves[i]).equals(move)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException(move + " is not legal in " + Fen.write(chessMatch));
+    }
+}
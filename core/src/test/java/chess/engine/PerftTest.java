@@ -0,0 +1,75 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// the published node counts of the usual perft positions, at depths that keep the suite fast
+class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    void initialPosition() {
+        assertPerft(new ChessMatch(), 20, 400, 8902, 197281);
+    }
+
+    @Test
+    void kiwipete() {
+        assertPerft(new ChessMatch(KIWIPETE), 48, 2039, 97862);
+    }
+
+    @Test
+    void position3() {
+        assertPerft(new ChessMatch(POSITION_3), 14, 191, 2812, 43238);
+    }
+
+    @Test
+    void position4() {
+        assertPerft(new ChessMatch(POSITION_4), 6, 264, 9467);
+    }
+
+    @Test
+    void position5() {
+        assertPerft(new ChessMatch(POSITION_5), 44, 1486, 62379);
+    }
+
+    @Test
+    void position6() {
+        assertPerft(new ChessMatch(POSITION_6), 46, 2079, 89890);
+    }
+
+    @Test
+    void divideAddsUpToPerft() {
+        ChessMatch chessMatch = new ChessMatch(KIWIPETE);
+        long nodes = new Perft(chessMatch).divide(2).values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(2039, nodes);
+    }
+
+    @Test
+    void rejectsNegativeDepths() {
+        Perft perft = new Perft(new ChessMatch());
+        assertEquals(1, perft.perft(0));
+        assertThrows(IllegalArgumentException.class, () -> perft.perft(-1));
+        assertThrows(IllegalArgumentException.class, () -> perft.divide(0));
+    }
+
+    // counts every depth from 1 on, and checks that makeMove/undoMove left the position as it was
+    private static void assertPerft(ChessMatch chessMatch, long... expected) {
+        String fen = Fen.write(chessMatch);
+        long key = chessMatch.getZobristKey();
+        Perft perft = new Perft(chessMatch);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft.perft(depth), "depth " + depth);
+        }
+        assertEquals(fen, Fen.write(chessMatch));
+        assertEquals(key, chessMatch.getZobristKey());
+    }
+}
@@ -0,0 +1,53 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablebaseTest {
+
+    // the longest mates are the published ones: mate in 10, 16 and 28 moves
+    @Test
+    void generatesTheKnownLongestMates(@TempDir Path directory) throws IOException {
+        List<TablebaseStats> generated = new TablebaseGenerator(directory, 2).generate("KPK");
+        Map<String, TablebaseStats> stats = new HashMap<>();
+        for (TablebaseStats table : generated) {
+            stats.put(table.getName(), table);
+        }
+        assertEquals(19, stats.get("KQK").getLongestMate());
+        assertEquals(31, stats.get("KRK").getLongestMate());
+        assertEquals(55, stats.get("KPK").getLongestMate());
+        assertEquals(0, stats.get("KBK").getLongestMate());
+        assertEquals(0, stats.get("KNK").getLongestMate());
+        // a single minor piece never mates
+        assertEquals(0, stats.get("KBK").getWins() + stats.get("KBK").getLosses());
+        assertEquals(0, stats.get("KNK").getWins() + stats.get("KNK").getLosses());
+
+        // nothing is generated twice
+        assertTrue(new TablebaseGenerator(directory, 2).generate("KQK").isEmpty());
+        assertTrue(Files.exists(directory.resolve("KPK" + Tablebase.EXTENSION)));
+
+        try (Tablebase tablebase = new Tablebase(directory)) {
+            for (String name : new String[] {"KQK", "KRK", "KPK"}) {
+                TablebaseStats table = stats.get(name);
+                assertEquals(Search.MATE - table.getLongestMate(), tablebase.probe(new ChessMatch(table.getLongestMatePosition())), name);
+            }
+            // the rook pawn against the king in its corner draws, the queen mates in one, the rook in two, and
+            // there is no table for two rooks
+            assertEquals(0, tablebase.probe(new ChessMatch("k7/8/8/8/8/8/P7/K7 w - - 0 1")));
+            assertEquals(Search.MATE - 1, tablebase.probe(new ChessMatch("k7/8/1K6/8/8/8/7Q/8 w - - 0 1")));
+            assertEquals(-Search.MATE + 2, tablebase.probe(new ChessMatch("k7/7R/1K6/8/8/8/8/8 b - - 0 1")));
+            assertEquals(Tablebase.UNKNOWN, tablebase.probe(new ChessMatch("k7/8/1K6/8/8/8/8/6RR w - - 0 1")));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package chess.engine;
+
+import chess.Move;
+import chess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TranspositionTableTest {
+
+    private static final long KEY = 0x9D39247E33776D41L;
+
+    @Test
+    void probeReturnsWhatWasStored() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(12, 4, PieceType.QUEEN);
+        table.store(KEY, move, -31000, 17, TranspositionTable.BOUND_LOWER);
+
+        long data = table.probe(KEY);
+        assertEquals(move, TranspositionTable.getMove(data));
+        assertEquals(-31000, TranspositionTable.getScore(data));
+        assertEquals(17, TranspositionTable.getDepth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.getBound(data));
+
+        // a key in the same bucket, or in the next one, is a miss
+        assertEquals(0L, table.probe(KEY ^ (1L << 40)));
+        assertEquals(0L, table.probe(KEY ^ 1L));
+        assertEquals(1L, table.getHits());
+        assertEquals(2L, table.getMisses());
+
+        table.clear();
+        assertEquals(0L, table.probe(KEY));
+        assertEquals(0L, table.getHits());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    void keepsTheDeeperResultOfTheSameSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(52, 36);
+        table.store(KEY, move, 40, 10, TranspositionTable.BOUND_LOWER);
+        table.store(KEY, Move.encode(51, 35), 10, 4, TranspositionTable.BOUND_UPPER);
+        assertEquals(10, TranspositionTable.getDepth(table.probe(KEY)));
+
+        // an exact result replaces it, and keeps the old move when it has none
+        table.store(KEY, Move.NONE, 25, 4, TranspositionTable.BOUND_EXACT);
+        long data = table.probe(KEY);
+        assertEquals(4, TranspositionTable.getDepth(data));
+        assertEquals(move, TranspositionTable.getMove(data));
+
+        // and in the next search anything replaces it
+        table.newSearch();
+        table.store(KEY, Move.NONE, -5, 1, TranspositionTable.BOUND_UPPER);
+        assertEquals(1, TranspositionTable.getDepth(table.probe(KEY)));
+    }
+
+    // a full bucket gives up the entries of older searches first, then the shallowest
+    @Test
+    void replacesOldAndShallowEntriesOfAFullBucket() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(sameBucket(0), Move.NONE, 0, 12, TranspositionTable.BOUND_EXACT);
+        table.newSearch();
+        for (int i = 1; i < 4; i++) {
+            table.store(sameBucket(i), Move.NONE, 0, 10 + i, TranspositionTable.BOUND_EXACT);
+        }
+        table.store(sameBucket(4), Move.NONE, 0, 5, TranspositionTable.BOUND_EXACT);
+        assertEquals(0L, table.probe(sameBucket(0)));
+        assertEquals(0L, table.getCollisions());
+
+        table.store(sameBucket(5), Move.NONE, 0, 20, TranspositionTable.BOUND_EXACT);
+        assertEquals(0L, table.probe(sameBucket(4)));
+        assertEquals(1L, table.getCollisions());
+        for (int i = 1; i < 4; i++) {
+            assertNotEquals(0L, table.probe(sameBucket(i)));
+        }
+        assertNotEquals(0L, table.probe(sameBucket(5)));
+    }
+
+    // threads racing on one bucket never read an entry made of two different stores
+    @Test
+    void tornEntriesReadAsMisses() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong wrong = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(new Thread(() -> {
+                Random random = new Random(seed);
+                while (!stop.get()) {
+                    long key = sameBucket(random.nextInt(64));
+                    if (random.nextBoolean()) {
+                        table.store(key, Move.NONE, score(key), random.nextInt(40), TranspositionTable.BOUND_EXACT);
+                    } else {
+                        long data = table.probe(key);
+                        if (data != 0 && TranspositionTable.getScore(data) != score(key)) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(300);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0L, wrong.get());
+    }
+
+    private static long sameBucket(int i) {
+        return KEY + ((long) i << 32);
+    }
+
+    private static int score(long key) {
+        return (int) (key >>> 32) % 20000;
+    }
+}
@@ -0,0 +1,177 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import chess.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameRecordTest {
+
+    private static final String PROMOTION_FEN = "8/P6k/8/8/8/8/6Kp/8 w - - 0 1";
+
+    // every varint length from one to ten bytes, each on both sides of its boundary
+    private static final long[] CLOCKS = {
+            0L, 1L, 127L, 128L, 16383L, 16384L, 2097151L, 2097152L, 268435455L, 268435456L,
+            (1L << 35) - 1, 1L << 35, (1L << 56) - 1, 1L << 56, (1L << 63) - 1,
+    };
+
+    @Test
+    void randomGamesReadBackAsWritten() throws IOException {
+        Random random = new Random(5L);
+        int[][] games = new int[30][];
+        GameResult[] results = new GameResult[games.length];
+        int[] moves = new int[ChessMatch.MAX_MOVES];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameWriter writer = new GameWriter(bytes)) {
+            for (int game = 0; game < games.length; game++) {
+                ChessMatch chessMatch = new ChessMatch();
+                int[] played = new int[400];
+                int plies = 0;
+                while (plies < played.length && !chessMatch.isCheckmate() && !chessMatch.isStalemate() && !chessMatch.isDraw()) {
+                    int count = chessMatch.legalMoves(moves);
+                    chessMatch.performChessMove(moves[random.nextInt(count)]);
+                    played[plies++] = chessMatch.getLastMove();
+                }
+                games[game] = Arrays.copyOf(played, plies);
+                results[game] = GameResult.of(chessMatch);
+                writer.writeGame(results[game], played, plies);
+            }
+            assertEquals(games.length, writer.getGames());
+        }
+
+        try (GameReader reader = read(bytes)) {
+            for (int game = 0; game < games.length; game++) {
+                assertTrue(reader.nextGame());
+                assertFalse(reader.hasClocks());
+                assertNull(reader.getFen());
+                assertArrayEquals(games[game], moves(reader));
+                assertEquals(results[game], reader.getResult());
+            }
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    @Test
+    void clocksPromotionsAndStartPositionsReadBackAsWritten() throws IOException {
+        int[] promotions = {
+                Move.encode(8, 0, PieceType.KNIGHT), Move.encode(55, 63, PieceType.QUEEN),
+                Move.encode(8, 0, PieceType.ROOK), Move.encode(55, 63, PieceType.BISHOP),
+        };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameWriter writer = new GameWriter(bytes)) {
+            writer.beginGame(PROMOTION_FEN, true);
+            for (int i = 0; i < CLOCKS.length; i++) {
+                writer.writeMove(promotions[i % promotions.length], CLOCKS[i]);
+            }
+            writer.endGame(GameResult.DRAW);
+            writer.writeGame(PROMOTION_FEN, GameResult.WHITE_WINS, promotions, 1);
+            writer.writeGame(GameResult.UNKNOWN, promotions, 0);
+        }
+
+        try (GameReader reader = read(bytes)) {
+            assertTrue(reader.nextGame());
+            assertTrue(reader.hasClocks());
+            assertEquals(PROMOTION_FEN, reader.getFen());
+            assertEquals(PROMOTION_FEN, Fen.write(reader.newStartPosition()));
+            for (int i = 0; i < CLOCKS.length; i++) {
+                assertEquals(promotions[i % promotions.length], reader.nextMove());
+                assertEquals(CLOCKS[i], reader.getClock());
+            }
+            assertEquals(Move.NONE, reader.nextMove());
+            assertEquals(GameResult.DRAW, reader.getResult());
+
+            assertTrue(reader.nextGame());
+            assertFalse(reader.hasClocks());
+            assertEquals(PROMOTION_FEN, reader.getFen());
+            assertArrayEquals(Arrays.copyOf(promotions, 1), moves(reader));
+            assertEquals(GameResult.WHITE_WINS, reader.getResult());
+
+            assertTrue(reader.nextGame());
+            assertNull(reader.getFen());
+            assertEquals(Move.NONE, reader.nextMove());
+            assertEquals(GameResult.UNKNOWN, reader.getResult());
+            assertFalse(reader.nextGame());
+        }
+    }
+
+    // moves left unread are skipped, and the game after them starts cleanly
+    @Test
+    void nextGameSkipsUnreadMoves() throws IOException {
+        int[] moves = {Move.encode(52, 36), Move.encode(12, 28), Move.encode(62, 45)};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameWriter writer = new GameWriter(bytes)) {
+            writer.writeGame(GameResult.BLACK_WINS, moves, moves.length);
+            writer.writeGame(PROMOTION_FEN, GameResult.DRAW, moves, 2);
+        }
+        try (GameReader reader = read(bytes)) {
+            assertTrue(reader.nextGame());
+            assertEquals(moves[0], reader.nextMove());
+            assertTrue(reader.nextGame());
+            assertEquals(PROMOTION_FEN, reader.getFen());
+            assertArrayEquals(Arrays.copyOf(moves, 2), moves(reader));
+            assertEquals(GameResult.DRAW, reader.getResult());
+        }
+    }
+
+    @Test
+    void rejectsBrokenRecords() throws IOException {
+        assertThrows(IOException.class, () -> new GameReader(new ByteArrayInputStream("PGN!\u0001".getBytes())));
+        assertThrows(IOException.class, () -> new GameReader(new ByteArrayInputStream(new byte[] {'C', 'H', 'S', 'G', 9})));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameWriter writer = new GameWriter(bytes)) {
+            writer.writeGame(GameResult.DRAW, new int[] {Move.encode(52, 36), Move.encode(12, 28)}, 2);
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 4);
+        try (GameReader reader = new GameReader(new ByteArrayInputStream(truncated))) {
+            assertTrue(reader.nextGame());
+            assertThrows(IOException.class, () -> moves(reader));
+        }
+
+        try (GameWriter writer = new GameWriter(new ByteArrayOutputStream())) {
+            writer.beginGame(true);
+            assertThrows(IllegalStateException.class, () -> writer.writeMove(Move.encode(52, 36)));
+            assertThrows(IllegalArgumentException.class, () -> writer.writeMove(Move.encode(52, 36), -1));
+            assertThrows(IllegalArgumentException.class, () -> writer.writeMove(Move.NONE, 0));
+        }
+    }
+
+    // a version 1 file, from before start positions, still reads
+    @Test
+    void readsVersionOne() throws IOException {
+        byte[] file = {'C', 'H', 'S', 'G', 1, 0, 0x09, 0x34, 0, 0, 3};
+        try (GameReader reader = new GameReader(new ByteArrayInputStream(file))) {
+            assertTrue(reader.nextGame());
+            assertNull(reader.getFen());
+            assertArrayEquals(new int[] {Move.encode(52, 36)}, moves(reader));
+            assertEquals(GameResult.DRAW, reader.getResult());
+        }
+    }
+
+    private static GameReader read(ByteArrayOutputStream bytes) throws IOException {
+        return new GameReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static int[] moves(GameReader reader) throws IOException {
+        int[] moves = new int[0];
+        for (int move = reader.nextMove(); move != Move.NONE; move = reader.nextMove()) {
+            moves = Arrays.copyOf(moves, moves.length + 1);
+            moves[moves.length - 1] = move;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,94 @@
+package chess.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PgnImporterTest {
+
+    private static final int COPIES = 600;
+
+    // far more than one chunk, so the splits fall inside comments, variations and tags of the sample games
+    @Test
+    void importsEveryGameOfTextSplitIntoChunks() throws IOException {
+        byte[] text = copies(COPIES);
+        assertTrue(text.length > 4 * (64 << 10));
+        assertImported(COPIES, text.length, (handler) -> new PgnImporter(4).importBytes(ByteBuffer.wrap(text), handler));
+    }
+
+    @Test
+    void importsAFileLikeTheSameBytes(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("games.pgn");
+        byte[] text = copies(COPIES);
+        Files.write(file, text);
+        assertImported(COPIES, text.length, (handler) -> new PgnImporter(3).importFile(file, handler));
+    }
+
+    // only the bytes from the position to the limit are imported, and the buffer is left as it was
+    @Test
+    void importsOnlyTheRemainingBytes() throws IOException {
+        byte[] before = "1. e4 e5 2. Zz9 *\n\n".getBytes();
+        byte[] games = copies(200);
+        byte[] after = "\n\n[Event \"Open\"]\n\n1. e4 garbage".getBytes();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(before);
+        bytes.write(games);
+        bytes.write(after);
+        ByteBuffer text = ByteBuffer.wrap(bytes.toByteArray());
+        text.position(before.length).limit(before.length + games.length);
+
+        assertImported(200, games.length, (handler) -> new PgnImporter(2).importBytes(text, handler));
+        assertEquals(before.length, text.position());
+        assertEquals(before.length + games.length, text.limit());
+
+        ByteBuffer slice = text.slice();
+        assertImported(200, games.length, (handler) -> new PgnImporter(2).importBytes(slice, handler));
+    }
+
+    private static void assertImported(int copies, int size, Import run) throws IOException {
+        Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+        PgnImportStats stats = run.apply((game) -> {
+            String event = game.getTag("Event");
+            for (String[] expected : PgnParserTest.SAMPLE) {
+                if (expected[0].equals(event)) {
+                    assertEquals(expected[1], PgnParserTest.moves(game), event);
+                }
+            }
+            counts.computeIfAbsent(event, (key) -> new AtomicLong()).incrementAndGet();
+        });
+
+        assertEquals(3L * copies, stats.getGames());
+        assertEquals(19L * copies, stats.getPlies());
+        assertEquals(copies, stats.getErrors());
+        assertEquals(size, stats.getBytes());
+        assertEquals(PgnParserTest.SAMPLE.length, counts.size());
+        for (String[] expected : PgnParserTest.SAMPLE) {
+            assertEquals(copies, counts.get(expected[0]).get(), expected[0]);
+        }
+    }
+
+    private static byte[] copies(int copies) throws IOException {
+        byte[] sample = PgnParserTest.sample();
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        for (int i = 0; i < copies; i++) {
+            text.write(sample);
+        }
+        return text.toByteArray();
+    }
+
+    private interface Import {
+        PgnImportStats apply(Consumer<PgnGame> handler) throws IOException;
+    }
+}
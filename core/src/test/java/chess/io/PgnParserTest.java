@@ -0,0 +1,83 @@
+package chess.io;
+
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PgnParserTest {
+
+    // the moves of the three good games in sample.pgn, keyed by their Event tag
+    static final String[][] SAMPLE = {
+            {"Open", "e2e4 e7e5 g1f3 b8c6 f1c4 g8f6 d1e2 f8e7 e1g1 e8g8"},
+            {"Endgame", "e5d6 e8d7 e1d2 d7d6"},
+            {"Promotion", "e7e8n g7g6 e1f2 g2g1q f2g1"},
+    };
+
+    @Test
+    void parsesTagsCommentsVariationsAndNags() throws IOException {
+        ByteBuffer text = ByteBuffer.wrap(sample());
+        List<PgnGame> games = new ArrayList<>();
+        PgnParser parser = new PgnParser();
+        parser.parse(text, 0, text.limit(), games::add);
+
+        assertEquals(3, parser.getGames());
+        assertEquals(19, parser.getPlies());
+        assertEquals(1, parser.getErrors());
+        assertEquals(3, games.size());
+
+        PgnGame open = games.get(0);
+        assertEquals("A \"Quoted\" Player", open.getTag("White"));
+        assertEquals("?", open.getTag("Site"));
+        assertNull(open.getTag("FEN"));
+        assertEquals(GameResult.WHITE_WINS, open.getResult());
+
+        PgnGame endgame = games.get(1);
+        assertEquals("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1", endgame.getTag("FEN"));
+        assertEquals(GameResult.DRAW, endgame.getResult());
+
+        // no Result tag, so the result comes from the token after the moves
+        assertEquals(GameResult.BLACK_WINS, games.get(2).getResult());
+
+        for (int i = 0; i < SAMPLE.length; i++) {
+            assertEquals(SAMPLE[i][0], games.get(i).getTag("Event"));
+            assertEquals(SAMPLE[i][1], moves(games.get(i)));
+        }
+    }
+
+    // a game without a result token still ends where the tags of the next one begin
+    @Test
+    void endsAGameAtTheNextTags() {
+        byte[] text = "[Event \"A\"]\n\n1. d4 d5\n\n[Event \"B\"]\n\n1. c4 *\n".getBytes();
+        List<PgnGame> games = new ArrayList<>();
+        PgnParser parser = new PgnParser();
+        parser.parse(ByteBuffer.wrap(text), 0, text.length, games::add);
+
+        assertEquals(2, games.size());
+        assertEquals("d2d4 d7d5", moves(games.get(0)));
+        assertEquals("c2c4", moves(games.get(1)));
+        assertEquals(GameResult.UNKNOWN, games.get(1).getResult());
+    }
+
+    static byte[] sample() throws IOException {
+        try (InputStream in = PgnParserTest.class.getResourceAsStream("sample.pgn")) {
+            return in.readAllBytes();
+        }
+    }
+
+    static String moves(PgnGame game) {
+        String[] moves = new String[game.getMoveCount()];
+        for (int ply = 0; ply < moves.length; ply++) {
+            moves[ply] = Move.toString(game.getMove(ply));
+        }
+        return String.join(" ", Arrays.asList(moves));
+    }
+}
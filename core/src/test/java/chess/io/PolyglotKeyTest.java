@@ -0,0 +1,63 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PolyglotKeyTest {
+
+    // the example keys of the Polyglot book format description
+    private static final Object[][] KEYS = {
+            {"", 0x463B96181691FC9CL},
+            {"e2e4", 0x823C9B50FD114196L},
+            {"e2e4 d7d5", 0x0756B94461C50FB0L},
+            {"e2e4 d7d5 e4e5", 0x662FAFB965DB29D4L},
+            {"e2e4 d7d5 e4e5 f7f5", 0x22A48B5A8E47FF78L},
+            {"e2e4 d7d5 e4e5 f7f5 e1e2", 0x652A607CA3F242C1L},
+            {"e2e4 d7d5 e4e5 f7f5 e1e2 e8f7", 0x00FDD303C946BDD9L},
+            {"a2a4 b7b5 h2h4 b5b4 c2c4", 0x3C8123EA7B067637L},
+            {"a2a4 b7b5 h2h4 b5b4 c2c4 b4c3 a1a3", 0x5C3F9B829B279560L},
+    };
+
+    @Test
+    void standardKeysMatchTheFormatExamples() throws IOException {
+        PolyglotKey keys = PolyglotKey.standard();
+        for (Object[] example : KEYS) {
+            ChessMatch chessMatch = new ChessMatch();
+            for (String move : ((String) example[0]).split(" ")) {
+                if (!move.isEmpty()) {
+                    play(chessMatch, move);
+                }
+            }
+            assertEquals((long) example[1], keys.key(chessMatch), (String) example[0]);
+        }
+    }
+
+    @Test
+    void readsTheTableAsPrinted() throws IOException {
+        StringBuilder table = new StringBuilder("const uint64 Random64[781] = {\n");
+        for (int i = 0; i < PolyglotKey.SIZE; i++) {
+            table.append("   0x").append(Long.toHexString(i * 0x9E3779B97F4A7C15L)).append(i % 4 == 3 ? ",\n" : ", ");
+        }
+        table.append("};\n");
+        PolyglotKey.read(new StringReader(table.toString()));
+
+        assertThrows(IOException.class, () -> PolyglotKey.read(new StringReader("0x1, 0x2")));
+    }
+
+    private static void play(ChessMatch chessMatch, String move) {
+        for (ChessMove legal : chessMatch.legalMoves()) {
+            if (legal.toString().equals(move)) {
+                chessMatch.performChessMove(legal.getSource(), legal.getTarget());
+                return;
+            }
+        }
+        throw new IllegalArgumentException(move);
+    }
+}
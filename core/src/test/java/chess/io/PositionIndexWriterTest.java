@@ -0,0 +1,201 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionIndexWriterTest {
+
+    private static final GameResult[] RESULTS = GameResult.values();
+
+    // enough games to double the smallest table several times; every count must survive the rehashing
+    @Test
+    void countsEveryPositionAndMoveThroughTheRehashes(@TempDir Path directory) throws IOException {
+        List<Game> games = games(400, 1L);
+        Path path = directory.resolve("games.idx");
+        try (PositionIndexWriter writer = new PositionIndexWriter(path, 0)) {
+            for (Game game : games) {
+                writer.addGame(new ChessMatch(), game.moves, game.moves.length, game.result);
+            }
+        }
+        assertTrue(Files.size(path) > PositionTable.HEADER_SIZE + 4 * (1L << 12) * PositionTable.ENTRY_SIZE);
+        assertFalse(Files.exists(directory.resolve("games.idx.tmp")));
+        assertIndexed(path, games);
+    }
+
+    // games added from several threads at once count the same as added one by one
+    @Test
+    void threadsShareOneWriter(@TempDir Path directory) throws IOException, InterruptedException {
+        List<Game> games = games(400, 2L);
+        Path path = directory.resolve("games.idx");
+        try (PositionIndexWriter writer = new PositionIndexWriter(path, 1000)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int first = t;
+                threads.add(new Thread(() -> {
+                    for (int i = first; i < games.size(); i += 4) {
+                        Game game = games.get(i);
+                        try {
+                            writer.addGame(new ChessMatch(), game.moves, game.moves.length, game.result);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertIndexed(path, games);
+    }
+
+    // a game that comes back to a position counts there once, with the move first played from it
+    @Test
+    void countsARepeatedPositionOnce(@TempDir Path directory) throws IOException {
+        ChessMatch chessMatch = new ChessMatch();
+        int[] shuffle = {Move.encode(62, 45), Move.encode(6, 21), Move.encode(45, 62), Move.encode(21, 6)};
+        int[] moves = new int[shuffle.length * 2 + 1];
+        for (int i = 0; i < moves.length - 1; i++) {
+            moves[i] = shuffle[i % shuffle.length];
+        }
+        moves[moves.length - 1] = Move.encode(52, 36);
+        Path path = directory.resolve("games.idx");
+        try (PositionIndexWriter writer = new PositionIndexWriter(path, 0)) {
+            writer.addGame(chessMatch, moves, moves.length, GameResult.DRAW);
+            writer.addGame(new ChessMatch(), moves, moves.length, GameResult.UNKNOWN);
+            assertEquals(1, writer.getGames());
+        }
+        try (PositionIndex index = new PositionIndex(path)) {
+            PositionStats start = index.query(new ChessMatch());
+            assertEquals(1, start.getDraws());
+            assertEquals(1, start.getMoves().size());
+            assertEquals(shuffle[0], start.getMoves().get(0).getMove());
+            assertEquals(1, index.query(chessMatch).getGames());
+            assertNull(index.query(chessMatch.getZobristKey() ^ 1L));
+        }
+    }
+
+    private static void assertIndexed(Path path, List<Game> games) throws IOException {
+        Map<Long, int[]> positions = new HashMap<>();
+        Map<Long, Map<Integer, int[]>> moves = new HashMap<>();
+        long counted = 0;
+        for (Game game : games) {
+            if (game.result == GameResult.UNKNOWN) {
+                continue;
+            }
+            counted++;
+            ChessMatch chessMatch = new ChessMatch();
+            Set<Long> seen = new HashSet<>();
+            for (int ply = 0; ply <= game.moves.length; ply++) {
+                long key = chessMatch.getZobristKey();
+                if (seen.add(key)) {
+                    count(positions.computeIfAbsent(key, (k) -> new int[3]), game.result);
+                    if (ply < game.moves.length) {
+                        Map<Integer, int[]> played = moves.computeIfAbsent(key, (k) -> new HashMap<>());
+                        count(played.computeIfAbsent(game.moves[ply], (m) -> new int[3]), game.result);
+                    }
+                }
+                if (ply < game.moves.length) {
+                    chessMatch.makeMove(game.moves[ply]);
+                }
+            }
+        }
+
+        long entries = positions.size();
+        for (Map<Integer, int[]> played : moves.values()) {
+            entries += played.size();
+        }
+        try (PositionIndex index = new PositionIndex(path)) {
+            assertEquals(counted, index.getGames());
+            assertEquals(entries, index.getEntries());
+            for (Map.Entry<Long, int[]> position : positions.entrySet()) {
+                PositionStats stats = index.query(position.getKey());
+                assertNotNull(stats);
+                assertCounts(position.getValue(), stats.getWhiteWins(), stats.getDraws(), stats.getBlackWins());
+                Map<Integer, int[]> played = moves.getOrDefault(position.getKey(), new HashMap<>());
+                assertEquals(played.size(), stats.getMoves().size());
+                long previous = Long.MAX_VALUE;
+                for (MoveStats move : stats.getMoves()) {
+                    assertCounts(played.get(move.getMove()), move.getWhiteWins(), move.getDraws(), move.getBlackWins());
+                    assertTrue(move.getGames() <= previous);
+                    previous = move.getGames();
+                }
+            }
+        }
+    }
+
+    private static void assertCounts(int[] expected, int white, int draws, int black) {
+        assertEquals(Arrays.toString(expected), Arrays.toString(new int[] {white, draws, black}));
+    }
+
+    private static void count(int[] counts, GameResult result) {
+        switch (result) {
+            case WHITE_WINS:
+                counts[0]++;
+                break;
+            case DRAW:
+                counts[1]++;
+                break;
+            default:
+                counts[2]++;
+                break;
+        }
+    }
+
+    // short random games, so the openings transpose into each other a lot
+    private static List<Game> games(int count, long seed) {
+        Random random = new Random(seed);
+        List<Game> games = new ArrayList<>();
+        int[] legal = new int[ChessMatch.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            ChessMatch chessMatch = new ChessMatch();
+            int[] moves = new int[4 + random.nextInt(40)];
+            int plies = 0;
+            while (plies < moves.length) {
+                int legalCount = chessMatch.legalMoves(legal);
+                if (legalCount == 0) {
+                    break;
+                }
+                moves[plies] = legal[random.nextInt(Math.min(legalCount, 3 + plies))];
+                chessMatch.makeMove(moves[plies++]);
+            }
+            games.add(new Game(Arrays.copyOf(moves, plies), RESULTS[random.nextInt(RESULTS.length)]));
+        }
+        return games;
+    }
+
+    private static class Game {
+
+        private final int[] moves;
+        private final GameResult result;
+
+        Game(int[] moves, GameResult result) {
+            this.moves = moves;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Fen;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SanParserTest {
+
+    @Test
+    void disambiguatesByFileRankAndSquare() {
+        // knights on b1 and f3 both reach d2
+        String knights = "4k3/8/8/8/8/5N2/8/1N2K3 w - - 0 1";
+        assertMove("b1d2", knights, "Nbd2");
+        assertMove("f3d2", knights, "Nfd2");
+        assertMove("f3d2", knights, "Nf3d2");
+        assertMove(null, knights, "Nd2");
+
+        // rooks on a1 and a5 both reach a3
+        String rooks = "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1";
+        assertMove("a1a3", rooks, "R1a3");
+        assertMove("a5a3", rooks, "R5a3");
+        assertMove(null, rooks, "Ra3");
+
+        // queens on e4, h4 and h1 all reach e1, and only the full square tells h4 apart
+        String queens = "8/2k5/8/8/4Q2Q/8/8/K6Q w - - 0 1";
+        assertMove("h4e1", queens, "Qh4e1");
+        assertMove("e4e1", queens, "Qee1");
+        assertMove("h1e1", queens, "Q1e1");
+        assertMove(null, queens, "Q4e1");
+        assertMove(null, queens, "Qhe1");
+    }
+
+    @Test
+    void promotes() {
+        String fen = "3r4/4P3/8/8/8/8/k7/4K3 w - - 0 1";
+        assertMove("e7e8q", fen, "e8=Q");
+        assertMove("e7e8r", fen, "e8R");
+        assertMove("e7d8n", fen, "exd8=N+");
+        assertMove("e7d8b", fen, "exd8B");
+        // a promotion without its piece is a queen
+        assertMove("e7e8q", fen, "e8");
+        assertMove(null, fen, "e8=K");
+    }
+
+    @Test
+    void castles() {
+        String fen = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+        assertMove("e1g1", fen, "O-O");
+        assertMove("e1c1", fen, "O-O-O");
+        assertMove("e1g1", fen, "0-0");
+        assertMove("e1c1", fen, "0-0-0+");
+        assertMove("e8g8", "r3k2r/8/8/8/8/8/8/R3K2R b kq - 0 1", "O-O");
+        assertMove(null, "r3k2r/8/8/8/8/8/8/R3K2R w - - 0 1", "O-O");
+    }
+
+    @Test
+    void takesEnPassant() {
+        String fen = "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1";
+        assertMove("e5d6", fen, "exd6");
+        assertMove("e5d6", fen, "exd6e.p.");
+        assertMove("e5d6", fen, "ed6");
+        assertMove(null, "4k3/8/8/3pP3/8/8/8/4K3 w - - 0 1", "exd6");
+    }
+
+    @Test
+    void ignoresCheckMateAndAnnotationSuffixes() {
+        String scholar = "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4";
+        assertMove("h5f7", scholar, "Qxf7#");
+        assertMove("h5f7", scholar, "Qxf7+");
+        assertMove("h5f7", scholar, "Qxf7#!!");
+        assertMove("h5f7", scholar, "Qf7");
+        assertMove("c4b5", scholar, "Bb5?!");
+        assertMove("e1e2", scholar, "Ke2??");
+    }
+
+    @Test
+    void rejectsWhatIsNoMove() {
+        assertMove(null, Fen.INITIAL, "Nc4");
+        assertMove(null, Fen.INITIAL, "e5");
+        assertMove(null, Fen.INITIAL, "Ke9");
+        assertMove(null, Fen.INITIAL, "Zf3");
+        assertMove(null, Fen.INITIAL, "+");
+        assertMove("g1f3", Fen.INITIAL, "Nf3");
+        assertMove("e2e4", Fen.INITIAL, "e4");
+    }
+
+    // the token sits in the middle of a larger buffer, as it does in a chunk of PGN text
+    private static void assertMove(String expected, String fen, String san) {
+        byte[] text = ("1. " + san + " {").getBytes(StandardCharsets.US_ASCII);
+        int move = SanParser.parse(new ChessMatch(fen), ByteBuffer.wrap(text), 3, 3 + san.length(), new int[ChessMatch.MAX_MOVES]);
+        assertEquals(expected, move == Move.NONE ? null : Move.toString(move), san);
+    }
+}
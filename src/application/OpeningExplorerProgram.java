@@ -0,0 +1,88 @@
+package application;
+
+import chess.ChessMatch;
+import chess.Move;
+import chess.io.MoveStats;
+import chess.io.PgnImportStats;
+import chess.io.PgnImporter;
+import chess.io.PositionIndex;
+import chess.io.PositionIndexWriter;
+import chess.io.PositionStats;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class OpeningExplorerProgram {
+    public static void main(String[] args) throws IOException {
+
+        if (args.length >= 3 && args[0].equals("build")) {
+            build(Paths.get(args[1]), Paths.get(args[2]), args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors());
+        } else if (args.length >= 2 && args[0].equals("query")) {
+            query(Paths.get(args[1]), args);
+        } else {
+            System.out.println("Usage: OpeningExplorerProgram build <index> <games.pgn> [threads]");
+            System.out.println("       OpeningExplorerProgram query <index> [\"FEN\"] [moves from the position, e.g. e2e4 e7e5]");
+        }
+    }
+
+    private static void build(Path index, Path pgn, int threads) throws IOException {
+        PgnImportStats stats;
+        // a PGN game is some 800 bytes for around 80 plies, most of them new entries
+        try (PositionIndexWriter writer = new PositionIndexWriter(index, Files.size(pgn) / 5)) {
+            stats = new PgnImporter(threads).importFile(pgn, game -> {
+                try {
+                    writer.addGame(game);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            System.out.println(writer.getGames() + " games, " + writer.getEntries() + " positions and moves");
+        }
+        System.out.println(stats);
+    }
+
+    private static void query(Path index, String[] args) throws IOException {
+        // a FEN is passed as one quoted argument and is the only one with a '/'
+        boolean fen = args.length > 2 && args[2].indexOf('/') >= 0;
+        ChessMatch chessMatch = fen ? new ChessMatch(args[2]) : new ChessMatch();
+        int[] legal = new int[ChessMatch.MAX_MOVES];
+        for (int i = fen ? 3 : 2; i < args.length; i++) {
+            int move = findMove(chessMatch, args[i], legal);
+            if (move == Move.NONE) {
+                System.out.println("Illegal move: " + args[i]);
+                return;
+            }
+            chessMatch.makeMove(move);
+        }
+
+        try (PositionIndex positionIndex = new PositionIndex(index)) {
+            long start = System.nanoTime();
+            PositionStats stats = positionIndex.query(chessMatch);
+            long elapsed = System.nanoTime() - start;
+            if (stats == null) {
+                System.out.println("No game reached this position");
+                return;
+            }
+            System.out.printf("%s, white scored %.1f%%%n", stats, stats.getWhiteScore() * 100);
+            for (MoveStats move : stats.getMoves()) {
+                System.out.printf("%-6s %10d  +%d =%d -%d  %.1f%%%n", Move.toString(move.getMove()), move.getGames(),
+                        move.getWhiteWins(), move.getDraws(), move.getBlackWins(), move.getWhiteScore() * 100);
+            }
+            System.out.println("Query: " + elapsed / 1000 + " us");
+        }
+    }
+
+    private static int findMove(ChessMatch chessMatch, String text, int[] legal) {
+        int count = chessMatch.legalMoves(legal);
+        for (int i = 0; i < count; i++) {
+            String move = Move.toString(legal[i]);
+            if (move.equals(text) || text.length() == 4 && move.length() == 5 && move.startsWith(text) && move.endsWith("q")) {
+                return legal[i];
+            }
+        }
+        return Move.NONE;
+    }
+}
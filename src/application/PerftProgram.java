@@ -0,0 +1,56 @@
+package application;
+
+import chess.ChessMatch;
+import chess.ChessMove;
+import chess.engine.Perft;
+
+import java.util.Map;
+
+public class PerftProgram {
+    public static void main(String[] args) {
+
+        if (args.length < 1) {
+            System.out.println("Usage: PerftProgram <depth> [\"FEN\"] [moves from the position, e.g. e2e4 e7e5]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        // a FEN is passed as one quoted argument and is the only one with a '/'
+        boolean fen = args.length > 1 && args[1].indexOf('/') >= 0;
+        ChessMatch chessMatch = fen ? new ChessMatch(args[1]) : new ChessMatch();
+
+        for (int i = fen ? 2 : 1; i < args.length; i++) {
+            ChessMove move = findMove(chessMatch, args[i]);
+            if (move == null) {
+                System.out.println("Illegal move: " + args[i]);
+                return;
+            }
+            chessMatch.performChessMove(move.getSource(), move.getTarget());
+            if (chessMatch.getPromoted() != null && move.getPromotion() != null) {
+                chessMatch.replacePromotedPiece(String.valueOf(move.getPromotion().getLetter()));
+            }
+        }
+
+        Perft perft = new Perft(chessMatch);
+        long start = System.nanoTime();
+        long nodes = 0;
+        for (Map.Entry<String, Long> entry : perft.divide(depth).entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+        System.out.println("Nodes/second: " + (elapsed == 0 ? nodes : nodes * 1_000_000_000L / elapsed));
+    }
+
+    private static ChessMove findMove(ChessMatch chessMatch, String text) {
+        for (ChessMove move : chessMatch.legalMoves()) {
+            if (move.toString().equals(text) || move.getPromotion() != null && text.length() == 4 && move.toString().startsWith(text) && move.getPromotion().getLetter() == 'Q') {
+                return move;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package application;
+
+import chess.io.GameWriter;
+import chess.io.PgnImportStats;
+import chess.io.PgnImporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class PgnImportProgram {
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 1) {
+            System.out.println("Usage: PgnImportProgram <games.pgn> [output game records] [threads]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        PgnImporter importer = new PgnImporter(threads);
+
+        PgnImportStats stats;
+        if (args.length > 1) {
+            try (GameWriter writer = new GameWriter(new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1]))))) {
+                stats = importer.importFile(Paths.get(args[0]), game -> {
+                    // games arrive from every worker thread
+                    synchronized (writer) {
+                        try {
+                            writer.writeGame(game.getTag("FEN"), game.getResult(), game.getMoves(), game.getMoveCount());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            }
+        } else {
+            stats = importer.importFile(Paths.get(args[0]), game -> { });
+        }
+        System.out.println(stats);
+    }
+}
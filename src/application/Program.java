@@ -17,7 +17,7 @@ public class Program {
         ChessMatch chessMatch = new ChessMatch();
         List<ChessPiece> captured = new ArrayList<>();
 
-        while (!chessMatch.isCheckmate()) {
+        while (!chessMatch.isCheckmate() && !chessMatch.isDraw()) {
 
             try {
                 UI.clearScreen();
@@ -0,0 +1,28 @@
+package application;
+
+import chess.engine.TablebaseGenerator;
+import chess.engine.TablebaseStats;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class TablebaseProgram {
+    public static void main(String[] args) throws IOException {
+
+        if (args.length < 2) {
+            System.out.println("Usage: TablebaseProgram <directory> <endgame, e.g. KQKR> [endgame...] [threads]");
+            return;
+        }
+        int last = args.length;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (args[last - 1].chars().allMatch(Character::isDigit)) {
+            threads = Integer.parseInt(args[--last]);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(Paths.get(args[0]), threads);
+        for (int i = 1; i < last; i++) {
+            for (TablebaseStats stats : generator.generate(args[i].toUpperCase())) {
+                System.out.println(stats);
+            }
+        }
+    }
+}
@@ -54,7 +54,9 @@ public class UI {
         System.out.println();
         UI.printCapturedPieces(captured);
         System.out.println("Turn: " + chessMatch.getTurn());
-        if (!chessMatch.isCheckmate()) {
+        if (chessMatch.isDraw()) {
+            System.out.println("DRAW: " + chessMatch.getDraw().toString().replace('_', ' '));
+        } else if (!chessMatch.isCheckmate()) {
             System.out.println("Waiting player: " + chessMatch.getCurrentPlayer());
             if (chessMatch.isCheck()) {
                 System.out.println("CHECK");
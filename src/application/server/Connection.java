@@ -0,0 +1,212 @@
+package application.server;
+
+import boardgame.BoardException;
+import chess.ChessMatch;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PositionSnapshot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// one client socket: a reader thread parses commands and a writer thread sends the replies, which come back from the
+// match actors in any order, so every reply repeats the command name and its match id or tag:
+//
+//   NEW <tag>            -> NEW <tag> <id>
+//   MOVE <id> <e2e4>     -> MOVE <id> OK <WHITE|BLACK> [CHECK] | MOVE <id> OK CHECKMATE <winner> | MOVE <id> OK DRAW <type>
+//                           MOVE <id> ERR <message>
+//   MOVES <id>           -> MOVES <id> <move> ...
+//   SHOW <id>            -> SHOW <id> <version> <rows separated by '/'>
+//   CLOSE <id>           -> CLOSE <id> OK
+//   STATS [RESET]        -> STATS <counters>
+//   QUIT
+//
+// finished matches are dropped by the server, and a closed connection drops the matches it created
+class Connection {
+
+    private static final String END = "";
+
+    private MatchServer server;
+    private Socket socket;
+    private BlockingQueue<String> outbound;
+    private Set<Long> owned;
+
+    Connection(MatchServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+        this.outbound = new LinkedBlockingQueue<>();
+        this.owned = ConcurrentHashMap.newKeySet();
+    }
+
+    void start() {
+        Thread reader = new Thread(this::read, "connection-reader");
+        Thread writer = new Thread(this::write, "connection-writer");
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+    }
+
+    // closing the reader would close the socket under the writer, so the writer closes it once the replies are out
+    private void read() {
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("QUIT")) {
+                    break;
+                }
+                this.handle(line, System.nanoTime());
+            }
+        } catch (IOException e) {
+            // the client went away
+        } finally {
+            for (Long id : this.owned) {
+                this.server.removeMatch(id, false);
+            }
+            this.outbound.add(END);
+        }
+    }
+
+    // replies are written in batches: the stream is only flushed once nothing else is waiting
+    private void write() {
+        try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            while (true) {
+                String line = this.outbound.take();
+                while (line != null) {
+                    if (line == END) {
+                        return;
+                    }
+                    out.write(line);
+                    out.write('\n');
+                    line = this.outbound.poll();
+                }
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            // the client went away
+        } finally {
+            try {
+                this.socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+
+    private void send(String line) {
+        this.outbound.add(line);
+    }
+
+    private void handle(String line, long received) {
+        String[] words = line.trim().split(" +");
+        try {
+            switch (words[0]) {
+                case "NEW":
+                    MatchActor actor = this.server.newMatch();
+                    this.owned.add(actor.getId());
+                    this.send("NEW " + (words.length > 1 ? words[1] : "-") + " " + actor.getId());
+                    break;
+                case "MOVE":
+                    this.move(this.match(words), words.length > 2 ? words[2] : "", received);
+                    break;
+                case "MOVES":
+                    this.match(words).tell(match -> this.send("MOVES " + match.getId() + this.legalMoves(match.getChessMatch())));
+                    break;
+                case "SHOW":
+                    MatchActor shown = this.match(words);
+                    // read from the published snapshot, without waiting for the match
+                    PositionSnapshot snapshot = shown.getSnapshot();
+                    this.send("SHOW " + shown.getId() + " " + snapshot.getVersion() + " " + snapshot.toString().trim().replace('\n', '/'));
+                    break;
+                case "CLOSE":
+                    MatchActor closed = this.match(words);
+                    this.server.removeMatch(closed.getId(), false);
+                    this.owned.remove(closed.getId());
+                    this.send("CLOSE " + closed.getId() + " OK");
+                    break;
+                case "STATS":
+                    this.send("STATS " + this.server.stats());
+                    if (words.length > 1 && words[1].equals("RESET")) {
+                        this.server.resetStats();
+                    }
+                    break;
+                default:
+                    this.send("ERR Unknown command " + words[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            this.send("ERR " + e.getMessage());
+        }
+    }
+
+    private MatchActor match(String[] words) {
+        if (words.length < 2) {
+            throw new IllegalArgumentException(words[0] + " needs a match id");
+        }
+        MatchActor actor = this.server.getMatch(Long.parseLong(words[1]));
+        if (actor == null) {
+            throw new IllegalArgumentException("Unknown match " + words[1]);
+        }
+        return actor;
+    }
+
+    private void move(MatchActor actor, String text, long received) {
+        actor.tell(match -> {
+            ChessMatch chessMatch = match.getChessMatch();
+            try {
+                if (chessMatch.isCheckmate() || chessMatch.isDraw()) {
+                    throw new BoardException("The match is over");
+                }
+                if (text.length() != 4 && text.length() != 5) {
+                    throw new BoardException("Moves are written like e2e4 or e7e8q");
+                }
+                ChessPosition source = new ChessPosition(text.charAt(0), text.charAt(1) - '0');
+                ChessPosition target = new ChessPosition(text.charAt(2), text.charAt(3) - '0');
+                long start = System.nanoTime();
+                chessMatch.performChessMove(source, target);
+                if (chessMatch.getPromoted() != null && text.length() == 5) {
+                    chessMatch.replacePromotedPiece(text.substring(4).toUpperCase());
+                }
+                long end = System.nanoTime();
+                this.server.recordMove(end - received, end - start);
+            } catch (BoardException e) {
+                this.send("MOVE " + match.getId() + " ERR " + e.getMessage());
+                return;
+            }
+
+            boolean over = chessMatch.isCheckmate() || chessMatch.isDraw();
+            if (over) {
+                this.server.removeMatch(match.getId(), true);
+                this.owned.remove(match.getId());
+            }
+            this.send("MOVE " + match.getId() + " OK " + state(chessMatch));
+        });
+    }
+
+    private String legalMoves(ChessMatch chessMatch) {
+        StringBuilder sb = new StringBuilder();
+        for (ChessMove move : chessMatch.legalMoves()) {
+            sb.append(' ').append(move);
+        }
+        return sb.toString();
+    }
+
+    private static String state(ChessMatch chessMatch) {
+        if (chessMatch.isCheckmate()) {
+            return "CHECKMATE " + chessMatch.getCurrentPlayer();
+        }
+        if (chessMatch.isDraw()) {
+            return "DRAW " + chessMatch.getDraw();
+        }
+        return chessMatch.getCurrentPlayer() + (chessMatch.isCheck() ? " CHECK" : "");
+    }
+}
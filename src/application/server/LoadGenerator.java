@@ -0,0 +1,231 @@
+package application.server;
+
+import chess.ChessMatch;
+import chess.ChessMove;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// plays random legal games against a MatchServer: every connection keeps its share of the matches busy, each with
+// exactly one move in flight, and replaces finished games with new ones until the time is up
+public class LoadGenerator {
+
+    private LatencyHistogram latency;
+    private LongAdder moves;
+    private LongAdder games;
+    private LongAdder errors;
+    private volatile boolean running;
+
+    public LoadGenerator() {
+        this.latency = new LatencyHistogram();
+        this.moves = new LongAdder();
+        this.games = new LongAdder();
+        this.errors = new LongAdder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: LoadGenerator <connections> <matches> [seconds] [port]");
+            return;
+        }
+        int connections = Integer.parseInt(args[0]);
+        int matches = Integer.parseInt(args[1]);
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : MatchServer.DEFAULT_PORT;
+        new LoadGenerator().run(connections, matches, seconds, port);
+    }
+
+    public void run(int connections, int matches, int seconds, int port) throws Exception {
+        this.running = true;
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            int share = matches / connections + (i < matches % connections ? 1 : 0);
+            Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            Client client = new Client(socket, share, new Random(i));
+            threads.addAll(client.start());
+        }
+
+        // the first seconds only warm up the JIT on both sides
+        int warmup = Math.min(5, seconds / 3);
+        Thread.sleep(warmup * 1000L);
+        this.latency.reset();
+        this.moves.reset();
+        this.games.reset();
+        String serverStats = this.request(port, "STATS RESET");
+        long start = System.nanoTime();
+        for (int elapsed = warmup; elapsed < seconds; elapsed++) {
+            Thread.sleep(1000);
+            System.out.printf("%3ds %8d moves/s p99 %6dus%n", elapsed + 1, this.moves.sumThenReset() * 1_000_000_000L / Math.max(1, System.nanoTime() - start), this.latency.percentile(99) / 1000);
+            start = System.nanoTime();
+        }
+        serverStats = this.request(port, "STATS");
+        this.running = false;
+        for (Thread thread : threads) {
+            thread.join(2000);
+        }
+
+        System.out.println("Matches:    " + matches + " over " + connections + " connections");
+        System.out.println("Games:      " + this.games.sum() + " finished, " + this.errors.sum() + " errors");
+        System.out.println("Round trip: p50 " + this.latency.percentile(50) / 1000 + "us, p99 " + this.latency.percentile(99) / 1000
+                + "us, p99.9 " + this.latency.percentile(99.9) / 1000 + "us");
+        System.out.println("Server:     " + serverStats);
+    }
+
+    private String request(int port, String command) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.write(command + "\nQUIT\n");
+            out.flush();
+            return in.readLine();
+        }
+    }
+
+    // the reader thread mirrors every match locally to pick its moves; the writer thread only drains the queue
+    private class Client {
+
+        private Socket socket;
+        private int matches;
+        private Random random;
+        private BlockingQueue<String> outbound;
+        private Map<Long, ChessMatch> mirrors;
+        private Map<Long, String> pending;
+        private Map<Long, Long> sentAt;
+
+        Client(Socket socket, int matches, Random random) {
+            this.socket = socket;
+            this.matches = matches;
+            this.random = random;
+            this.outbound = new LinkedBlockingQueue<>();
+            this.mirrors = new HashMap<>();
+            this.pending = new HashMap<>();
+            this.sentAt = new HashMap<>();
+        }
+
+        List<Thread> start() {
+            for (int i = 0; i < this.matches; i++) {
+                this.outbound.add("NEW " + i);
+            }
+            Thread reader = new Thread(this::read, "load-reader");
+            Thread writer = new Thread(this::write, "load-writer");
+            reader.setDaemon(true);
+            writer.setDaemon(true);
+            reader.start();
+            writer.start();
+            return List.of(reader, writer);
+        }
+
+        private void read() {
+            try {
+                BufferedReader in = new BufferedReader(new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                while (LoadGenerator.this.running && (line = in.readLine()) != null) {
+                    this.handle(line.split(" "));
+                }
+                this.outbound.add("QUIT");
+            } catch (IOException e) {
+                if (LoadGenerator.this.running) {
+                    System.err.println("Connection lost: " + e.getMessage());
+                }
+            }
+        }
+
+        private void handle(String[] words) {
+            if (words[0].equals("NEW")) {
+                long id = Long.parseLong(words[2]);
+                this.mirrors.put(id, new ChessMatch());
+                this.sendMove(id);
+                return;
+            }
+            if (words[0].equals("CLOSE") && words.length > 2 && words[2].equals("OK")) {
+                // the close restart() sends after an error, which is already counted
+                return;
+            }
+            if (!words[0].equals("MOVE")) {
+                LoadGenerator.this.errors.increment();
+                return;
+            }
+            long id = Long.parseLong(words[1]);
+            LoadGenerator.this.latency.record(System.nanoTime() - this.sentAt.get(id));
+            LoadGenerator.this.moves.increment();
+            ChessMatch mirror = this.mirrors.get(id);
+            if (words[2].equals("ERR")) {
+                LoadGenerator.this.errors.increment();
+                this.restart(id, true);
+                return;
+            }
+            this.play(mirror, this.pending.get(id));
+            if (words[3].equals("CHECKMATE") || words[3].equals("DRAW")) {
+                LoadGenerator.this.games.increment();
+                this.restart(id, false);
+            } else {
+                this.sendMove(id);
+            }
+        }
+
+        private void restart(long id, boolean close) {
+            this.mirrors.remove(id);
+            this.pending.remove(id);
+            this.sentAt.remove(id);
+            if (close) {
+                this.outbound.add("CLOSE " + id);
+            }
+            this.outbound.add("NEW " + id);
+        }
+
+        private void sendMove(long id) {
+            ChessMatch mirror = this.mirrors.get(id);
+            List<ChessMove> legal = mirror.legalMoves();
+            String move = legal.get(this.random.nextInt(legal.size())).toString();
+            this.pending.put(id, move);
+            this.sentAt.put(id, System.nanoTime());
+            this.outbound.add("MOVE " + id + " " + move);
+        }
+
+        private void play(ChessMatch mirror, String move) {
+            for (ChessMove legal : mirror.legalMoves()) {
+                if (legal.toString().equals(move)) {
+                    mirror.performChessMove(legal.getSource(), legal.getTarget());
+                    if (mirror.getPromoted() != null && move.length() == 5) {
+                        mirror.replacePromotedPiece(move.substring(4).toUpperCase());
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void write() {
+            try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8))) {
+                while (true) {
+                    String line = this.outbound.take();
+                    while (line != null) {
+                        out.write(line);
+                        out.write('\n');
+                        if (line.equals("QUIT")) {
+                            out.flush();
+                            return;
+                        }
+                        line = this.outbound.poll();
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // the server went away
+            }
+        }
+    }
+}
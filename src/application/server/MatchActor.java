@@ -0,0 +1,74 @@
+package application.server;
+
+import chess.ChessMatch;
+import chess.PositionSnapshot;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// one match with its own mailbox: messages run one at a time, in order, on a shared executor, so the match needs no
+// locks and an idle match costs no thread
+class MatchActor implements Runnable {
+
+    // messages handled per turn on the executor before the actor yields to the other matches
+    private static final int BATCH = 16;
+
+    private long id;
+    private ChessMatch chessMatch;
+    private Executor executor;
+    private Queue<Consumer<MatchActor>> mailbox;
+    private AtomicBoolean scheduled;
+
+    MatchActor(long id, Executor executor) {
+        this.id = id;
+        this.chessMatch = new ChessMatch();
+        this.executor = executor;
+        this.mailbox = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    long getId() {
+        return id;
+    }
+
+    // only to be used by messages, which run on the actor
+    ChessMatch getChessMatch() {
+        return chessMatch;
+    }
+
+    // snapshots are safe to read from any thread
+    PositionSnapshot getSnapshot() {
+        return this.chessMatch.getSnapshot();
+    }
+
+    void tell(Consumer<MatchActor> message) {
+        this.mailbox.add(message);
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < BATCH; i++) {
+            Consumer<MatchActor> message = this.mailbox.poll();
+            if (message == null) {
+                break;
+            }
+            try {
+                message.accept(this);
+            } catch (RuntimeException e) {
+                // a failing message must not leave the actor scheduled forever
+                System.err.println("Match " + this.id + ": " + e);
+            }
+        }
+        this.scheduled.set(false);
+        // a message may have arrived after the last poll but before the flag was cleared
+        if (!this.mailbox.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this);
+        }
+    }
+}
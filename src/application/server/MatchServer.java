@@ -0,0 +1,95 @@
+package application.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// hosts any number of matches behind a line protocol on a local socket; see Connection for the commands
+public class MatchServer {
+
+    public static final int DEFAULT_PORT = 7878;
+
+    private int threads;
+    private Map<Long, MatchActor> matches;
+    private AtomicLong nextId;
+    private ExecutorService executor;
+    private LatencyHistogram latency;
+    private LatencyHistogram service;
+    private LongAdder moves;
+    private LongAdder finished;
+
+    public MatchServer(int threads) {
+        this.threads = threads;
+        this.matches = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "match-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.latency = new LatencyHistogram();
+        this.service = new LatencyHistogram();
+        this.moves = new LongAdder();
+        this.finished = new LongAdder();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        new MatchServer(threads).serve(port);
+    }
+
+    public void serve(int port) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress())) {
+            System.out.println("Listening on " + serverSocket.getLocalSocketAddress() + " with " + this.threads + " match threads");
+            while (true) {
+                Socket socket = serverSocket.accept();
+                new Connection(this, socket).start();
+            }
+        }
+    }
+
+    MatchActor newMatch() {
+        MatchActor actor = new MatchActor(this.nextId.incrementAndGet(), this.executor);
+        this.matches.put(actor.getId(), actor);
+        return actor;
+    }
+
+    MatchActor getMatch(long id) {
+        return this.matches.get(id);
+    }
+
+    void removeMatch(long id, boolean over) {
+        if (this.matches.remove(id) != null && over) {
+            this.finished.increment();
+        }
+    }
+
+    // latency is measured from the moment the command was read, service time only around performChessMove
+    void recordMove(long latencyNanos, long serviceNanos) {
+        this.latency.record(latencyNanos);
+        this.service.record(serviceNanos);
+        this.moves.increment();
+    }
+
+    String stats() {
+        return String.format("matches=%d finished=%d moves=%d p50=%dus p99=%dus p999=%dus service_p99=%dus",
+                this.matches.size(), this.finished.sum(), this.moves.sum(),
+                this.latency.percentile(50) / 1000, this.latency.percentile(99) / 1000, this.latency.percentile(99.9) / 1000,
+                this.service.percentile(99) / 1000);
+    }
+
+    void resetStats() {
+        this.latency.reset();
+        this.service.reset();
+        this.moves.reset();
+        this.finished.reset();
+    }
+}
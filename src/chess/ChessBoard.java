@@ -0,0 +1,226 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+public class ChessBoard extends Board {
+
+    public static final int SIZE = 8;
+
+    // one shared Position per square, so moves made by square allocate nothing; pieces only ever read them
+    private static final Position[] POSITIONS = positions();
+
+    private long[][] bitboards;
+    private long[] colorOccupancy;
+    private long occupied;
+    private long zobristKey;
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+    private long[] pieceAttacks;
+    // per color, how many of its pieces attack each square, and the squares attacked at all
+    private int[][] attackCounts;
+    private long[] attackMaps;
+
+    public ChessBoard() {
+        super(SIZE, SIZE);
+        this.bitboards = new long[Color.values().length][PieceType.values().length];
+        this.colorOccupancy = new long[Color.values().length];
+        this.occupied = 0L;
+        this.pieceAttacks = new long[SIZE * SIZE];
+        this.attackCounts = new int[Color.values().length][SIZE * SIZE];
+        this.attackMaps = new long[Color.values().length];
+    }
+
+    public static int square(int row, int column) {
+        return row * SIZE + column;
+    }
+
+    public static int square(Position position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getOccupied(Color color) {
+        return this.colorOccupancy[color.ordinal()];
+    }
+
+    public long getPieces(Color color, PieceType type) {
+        return this.bitboards[color.ordinal()][type.ordinal()];
+    }
+
+    public long getPieces(PieceType type) {
+        return this.bitboards[0][type.ordinal()] | this.bitboards[1][type.ordinal()];
+    }
+
+    public ChessPiece piece(int square) {
+        return (ChessPiece) this.piece(row(square), column(square));
+    }
+
+    public boolean isOccupied(int square) {
+        return (this.occupied & bit(square)) != 0;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    // running evaluation sums, white positive
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public long getAttacks(Color color) {
+        return this.attackMaps[color.ordinal()];
+    }
+
+    public boolean isAttacked(int square, Color by) {
+        return (this.getAttacks(by) & bit(square)) != 0;
+    }
+
+    public long attackersTo(int square, long occupied) {
+        long bishops = this.getPieces(PieceType.BISHOP) | this.getPieces(PieceType.QUEEN);
+        long rooks = this.getPieces(PieceType.ROOK) | this.getPieces(PieceType.QUEEN);
+        return (Attacks.pawnAttacks(Color.WHITE, square) & this.getPieces(Color.BLACK, PieceType.PAWN))
+                | (Attacks.pawnAttacks(Color.BLACK, square) & this.getPieces(Color.WHITE, PieceType.PAWN))
+                | (Attacks.knightAttacks(square) & this.getPieces(PieceType.KNIGHT))
+                | (Attacks.kingAttacks(square) & this.getPieces(PieceType.KING))
+                | (Attacks.bishopAttacks(square, occupied) & bishops)
+                | (Attacks.rookAttacks(square, occupied) & rooks);
+    }
+
+    @Override
+    public void placePiece(Piece piece, Position position) {
+        super.placePiece(piece, position);
+        this.toggle((ChessPiece) piece, square(position));
+    }
+
+    @Override
+    public Piece removePiece(Position position) {
+        Piece piece = super.removePiece(position);
+        if (piece != null) {
+            this.toggle((ChessPiece) piece, square(position));
+        }
+        return piece;
+    }
+
+    void placePiece(Piece piece, int square) {
+        this.placePiece(piece, POSITIONS[square]);
+    }
+
+    Piece removePiece(int square) {
+        return this.removePiece(POSITIONS[square]);
+    }
+
+    @Override
+    public boolean thereIsAPiece(Position position) {
+        if (!this.positionExists(position)) {
+            throw new BoardException("Position not in the board");
+        }
+        return this.isOccupied(square(position));
+    }
+
+    private void toggle(ChessPiece piece, int square) {
+        long bit = bit(square);
+        int color = piece.getColor().ordinal();
+        this.bitboards[color][piece.getType().ordinal()] ^= bit;
+        this.colorOccupancy[color] ^= bit;
+        this.occupied ^= bit;
+        this.zobristKey ^= Zobrist.piece(piece.getColor(), piece.getType(), square);
+        // the bit is set again when the piece was placed, clear when it was removed
+        int sign = (this.occupied & bit) != 0 ? 1 : -1;
+        this.middlegameScore += sign * Evaluation.middlegame(piece.getColor(), piece.getType(), square);
+        this.endgameScore += sign * Evaluation.endgame(piece.getColor(), piece.getType(), square);
+        this.phase += sign * Evaluation.phase(piece.getType());
+        this.updateAttacks(square, color);
+    }
+
+    // only the changed square and the sliders whose rays reach it can change their attacks; the square keeps the color
+    // of the piece placed on or removed from it
+    private void updateAttacks(int square, int color) {
+        this.setAttacks(square, color, this.isOccupied(square) ? this.attacksFrom(square) : 0L);
+        long bishops = this.getPieces(PieceType.BISHOP) | this.getPieces(PieceType.QUEEN);
+        long rooks = this.getPieces(PieceType.ROOK) | this.getPieces(PieceType.QUEEN);
+        long sliders = (Attacks.bishopAttacks(square, this.occupied) & bishops) | (Attacks.rookAttacks(square, this.occupied) & rooks);
+        while (sliders != 0) {
+            int slider = Long.numberOfTrailingZeros(sliders);
+            this.setAttacks(slider, this.piece(slider).getColor().ordinal(), this.attacksFrom(slider));
+            sliders &= sliders - 1;
+        }
+    }
+
+    // only the squares the piece gains or loses are counted, and a square enters or leaves the map with its first or
+    // last attacker
+    private void setAttacks(int square, int color, long attacks) {
+        long previous = this.pieceAttacks[square];
+        this.pieceAttacks[square] = attacks;
+        int[] counts = this.attackCounts[color];
+        long gained = attacks & ~previous;
+        while (gained != 0) {
+            int target = Long.numberOfTrailingZeros(gained);
+            if (counts[target]++ == 0) {
+                this.attackMaps[color] |= bit(target);
+            }
+            gained &= gained - 1;
+        }
+        long lost = previous & ~attacks;
+        while (lost != 0) {
+            int target = Long.numberOfTrailingZeros(lost);
+            if (--counts[target] == 0) {
+                this.attackMaps[color] &= ~bit(target);
+            }
+            lost &= lost - 1;
+        }
+    }
+
+    private long attacksFrom(int square) {
+        ChessPiece piece = this.piece(square);
+        switch (piece.getType()) {
+            case PAWN:
+                return Attacks.pawnAttacks(piece.getColor(), square);
+            case KNIGHT:
+                return Attacks.knightAttacks(square);
+            case BISHOP:
+                return Attacks.bishopAttacks(square, this.occupied);
+            case ROOK:
+                return Attacks.rookAttacks(square, this.occupied);
+            case QUEEN:
+                return Attacks.queenAttacks(square, this.occupied);
+            default:
+                return Attacks.kingAttacks(square);
+        }
+    }
+
+    private static Position[] positions() {
+        Position[] positions = new Position[SIZE * SIZE];
+        for (int square = 0; square < positions.length; square++) {
+            positions[square] = new Position(row(square), column(square));
+        }
+        return positions;
+    }
+}
@@ -1,34 +1,165 @@
 package chess;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 import chess.pieces.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ChessMatch {
 
-    private Board board;
+    public static final int MAX_MOVES = 256;
+    public static final int FIFTY_MOVE_LIMIT = 100;
+
+    // a repetition can only reach back to the last capture or pawn move, so the keys of the reversible window fit a ring
+    // fifty moves end the game and the search stops there too, so a window never exceeds 100 plies
+    private static final int KEY_RING_SIZE = 128;
+    // matches played through performChessMove never fill the history, so it starts small and grows for a search
+    private static final int HISTORY_CAPACITY = 8;
+    private static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    private static final long CASTLING_SQUARES = 0x9100000000000091L;
+
+    private ChessBoard board;
     private int turn;
     private Color currentPlayer;
-    private List<Piece> piecesOnTheBoard;
+    private PieceList piecesOnTheBoard;
     private List<Piece> capturedPieces;
     private boolean check;
     private boolean checkmate;
+    private boolean stalemate;
+    private DrawType draw;
+    private int halfmoveClock;
+    private long[] positionKeys;
+    private int gamePly;
+    private int lastMove;
+    private volatile PositionSnapshot snapshot;
     private ChessPiece enPassantVulnerable;
     private ChessPiece promoted;
+    private int[] moveBuffer;
+    private int[] exchangeBuffer;
+    private long stateKey;
+    private int castlingRights;
+    private int enPassantFile;
+
+    // one MoveRecord per ply, from makeMove and performChessMove alike; moves taken back with undoLastMove wait for redo
+    private long[] history;
+    private int historySize;
+    private int[] redoMoves;
+    private int redoSize;
 
     public ChessMatch() {
-        this.board = new Board(8, 8);
+        this.board = new ChessBoard();
         this.turn = 1;
         this.currentPlayer = Color.WHITE;
-        this.piecesOnTheBoard = new ArrayList<>();
+        this.piecesOnTheBoard = new PieceList();
         this.capturedPieces = new ArrayList<>();
         this.check = false;
+        this.moveBuffer = new int[MAX_MOVES];
+        this.exchangeBuffer = new int[32];
+        this.stateKey = 0L;
+        this.castlingRights = 0;
+        this.enPassantFile = -1;
+        this.history = new long[HISTORY_CAPACITY];
+        this.historySize = 0;
+        this.redoMoves = new int[HISTORY_CAPACITY];
+        this.redoSize = 0;
+        this.halfmoveClock = 0;
+        this.positionKeys = new long[KEY_RING_SIZE];
+        this.gamePly = 0;
         this.initialSetup();
+        this.updateStateKey(~0L);
+        this.positionKeys[0] = this.getZobristKey();
+        this.lastMove = Move.NONE;
+        this.publish();
+    }
+
+    // a match starting from a position in Forsyth-Edwards Notation, see Fen; a malformed one throws a ChesException.
+    // When the side to move is already mated the winner becomes the current player, as after a mate played on the board
+    public ChessMatch(CharSequence fen) {
+        this.board = new ChessBoard();
+        this.piecesOnTheBoard = new PieceList();
+        this.capturedPieces = new ArrayList<>();
+        this.moveBuffer = new int[MAX_MOVES];
+        this.exchangeBuffer = new int[32];
+        this.castlingRights = 0;
+        this.enPassantFile = -1;
+        this.history = new long[HISTORY_CAPACITY];
+        this.historySize = 0;
+        this.redoMoves = new int[HISTORY_CAPACITY];
+        this.redoSize = 0;
+        this.positionKeys = new long[KEY_RING_SIZE];
+        this.gamePly = 0;
+        Fen.setUp(this, fen);
+        for (Color color : Color.values()) {
+            if (Long.bitCount(this.board.getPieces(color, PieceType.KING)) != 1) {
+                throw new ChesException("Invalid FEN: there must be one " + color + " king");
+            }
+        }
+        if (this.testCheck(this.opponent(this.currentPlayer))) {
+            throw new ChesException("Invalid FEN: the side not to move is in check");
+        }
+        this.check = this.testCheck(this.currentPlayer);
+        this.checkmate = this.check && !this.hasLegalMove(this.currentPlayer);
+        this.stalemate = !this.check && !this.hasLegalMove(this.currentPlayer);
+        if (this.checkmate) {
+            this.currentPlayer = this.opponent(this.currentPlayer);
+            this.turn--;
+        }
+        this.stateKey = this.currentPlayer == Color.BLACK ? Zobrist.blackToMove() : 0L;
+        this.updateStateKey(~0L);
+        this.positionKeys[0] = this.getZobristKey();
+        this.draw = this.checkmate ? null : this.drawType();
+        this.lastMove = Move.NONE;
+        this.publish();
+    }
+
+    // an independent copy of the current position, e.g. for a search thread; the move history is not copied
+    public ChessMatch(ChessMatch chessMatch) {
+        this.board = new ChessBoard();
+        this.turn = chessMatch.turn;
+        this.currentPlayer = chessMatch.currentPlayer;
+        this.piecesOnTheBoard = new PieceList();
+        this.capturedPieces = new ArrayList<>();
+        this.check = chessMatch.check;
+        this.checkmate = chessMatch.checkmate;
+        this.stalemate = chessMatch.stalemate;
+        this.draw = chessMatch.draw;
+        this.halfmoveClock = chessMatch.halfmoveClock;
+        this.positionKeys = chessMatch.positionKeys.clone();
+        this.gamePly = chessMatch.gamePly;
+        this.moveBuffer = new int[MAX_MOVES];
+        this.exchangeBuffer = new int[32];
+        this.stateKey = this.currentPlayer == Color.BLACK ? Zobrist.blackToMove() : 0L;
+        this.castlingRights = 0;
+        this.enPassantFile = -1;
+        this.history = new long[HISTORY_CAPACITY];
+        this.historySize = 0;
+        this.redoMoves = new int[HISTORY_CAPACITY];
+        this.redoSize = 0;
+
+        for (int square = 0; square < ChessBoard.SIZE * ChessBoard.SIZE; square++) {
+            ChessPiece piece = chessMatch.board.piece(square);
+            if (piece != null) {
+                ChessPiece copy = this.copyPiece(piece);
+                this.board.placePiece(copy, square);
+                this.piecesOnTheBoard.add(copy);
+                if (piece == chessMatch.enPassantVulnerable) {
+                    this.enPassantVulnerable = copy;
+                }
+                if (piece == chessMatch.promoted) {
+                    this.promoted = copy;
+                }
+            }
+        }
+        for (Piece piece : chessMatch.capturedPieces) {
+            this.capturedPieces.add(this.copyPiece((ChessPiece) piece));
+        }
+        this.updateStateKey(~0L);
+        this.lastMove = chessMatch.lastMove;
+        this.snapshot = chessMatch.snapshot;
     }
 
     public int getTurn() {
@@ -43,6 +174,45 @@ public class ChessMatch {
         return checkmate;
     }
 
+    public boolean isStalemate() {
+        return stalemate;
+    }
+
+    public boolean isDraw() {
+        return draw != null;
+    }
+
+    public DrawType getDraw() {
+        return draw;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    // true when the current position already occurred since the last capture or pawn move; the search scores this
+    // as a draw, as the side that repeated could do it again
+    public boolean isRepetition() {
+        return this.repetitions(1) >= 1;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return this.repetitions(2) >= 2;
+    }
+
+    // no sequence of legal moves can mate: bare kings, a single minor piece, or only bishops all on one square color
+    public boolean isInsufficientMaterial() {
+        if ((this.board.getPieces(PieceType.PAWN) | this.board.getPieces(PieceType.ROOK) | this.board.getPieces(PieceType.QUEEN)) != 0) {
+            return false;
+        }
+        long bishops = this.board.getPieces(PieceType.BISHOP);
+        long minors = bishops | this.board.getPieces(PieceType.KNIGHT);
+        if (Long.bitCount(minors) <= 1) {
+            return true;
+        }
+        return minors == bishops && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+
     public Color getCurrentPlayer() {
         return currentPlayer;
     }
@@ -55,6 +225,37 @@ public class ChessMatch {
         return promoted;
     }
 
+    // the last move of performChessMove, with the piece chosen in replacePromotedPiece; Move.NONE before the first
+    public int getLastMove() {
+        return lastMove;
+    }
+
+    public long getZobristKey() {
+        return this.board.getZobristKey() ^ this.stateKey;
+    }
+
+    // the position after the last performChessMove or replacePromotedPiece; unlike every other getter it may be called
+    // from any thread while the owning thread plays, and it never shows a position in the middle of a move or a search
+    public PositionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public ChessPiece getPiece(int square) {
+        return this.board.piece(square);
+    }
+
+    // a bit per occupied square, bit 0 being a8
+    public long getOccupied() {
+        return this.board.getOccupied();
+    }
+
+    // tapered material and piece-square score in centipawns from the side to move's point of view;
+    // the board keeps the sums up to date on every placement, so this is constant time
+    public int evaluate() {
+        int score = Evaluation.taper(this.board.getMiddlegameScore(), this.board.getEndgameScore(), this.board.getPhase());
+        return this.currentPlayer == Color.WHITE ? score : -score;
+    }
+
     public ChessPiece[][] getPieces() {
         ChessPiece[][] piecesMatrix = new ChessPiece[this.board.getRows()][this.board.getColumns()];
 
@@ -75,46 +276,188 @@ public class ChessMatch {
 
     }
 
+    public List<ChessMove> legalMoves() {
+        int count = this.legalMoves(this.moveBuffer);
+        List<ChessMove> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(ChessMove.fromMove(this.moveBuffer[i]));
+        }
+        return moves;
+    }
+
+    public int legalMoves(int[] moves) {
+        return MoveGenerator.generate(this.board, this.currentPlayer, this.enPassantSquare(this.currentPlayer), moves);
+    }
+
+    // the legal captures, en passant captures and promotions only
+    public int legalCaptures(int[] moves) {
+        return MoveGenerator.generate(this.board, this.currentPlayer, this.enPassantSquare(this.currentPlayer), moves, true);
+    }
+
+    // static exchange evaluation of a legal move in centipawns for the side playing it: the material it wins or
+    // loses once both sides have recaptured on the target square with their least valuable pieces as long as it pays
+    public int staticExchange(int move) {
+        return StaticExchange.evaluate(this.board, move, this.exchangeBuffer);
+    }
+
+    public boolean isWinningCapture(int move) {
+        return this.isCapture(move) && this.staticExchange(move) > 0;
+    }
+
+    public boolean isCapture(int move) {
+        if (this.board.isOccupied(Move.getTo(move))) {
+            return true;
+        }
+        // en passant: a pawn changing file onto an empty square
+        ChessPiece piece = this.board.piece(Move.getFrom(move));
+        return piece.getType() == PieceType.PAWN && ChessBoard.column(Move.getFrom(move)) != ChessBoard.column(Move.getTo(move));
+    }
+
+    // plays a move produced by legalMoves without any validation; undoMove() takes it back exactly. Meant for searches,
+    // so it neither publishes nor touches the game state a search does not need
+    public void makeMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        long record = this.recordBefore(from, to);
+        Piece capturedPiece = this.makeMove(from, to);
+
+        ChessPiece movedPiece = this.board.piece(to);
+        this.updateHalfmoveClock(movedPiece, capturedPiece);
+        if (movedPiece instanceof Pawn && (ChessBoard.row(to) == 0 || ChessBoard.row(to) == 7)) {
+            PieceType promotion = Move.getPromotion(move) == null ? PieceType.QUEEN : Move.getPromotion(move);
+            record = MoveRecord.withPromotion(record, movedPiece.getMoveCount());
+            this.promote(to, String.valueOf(promotion.getLetter()));
+        }
+
+        if (movedPiece instanceof Pawn && (to == from - 16 || to == from + 16)) {
+            this.enPassantVulnerable = movedPiece;
+        } else {
+            this.enPassantVulnerable = null;
+        }
+        this.pushRecord(MoveRecord.withMove(record, move));
+        this.nextTurn();
+        this.check = this.testCheck(this.currentPlayer);
+        this.recordPosition();
+    }
+
+    // the counterpart of makeMove; it takes back performChessMove moves as well, but leaves them out of redo
+    public void undoMove() {
+        if (this.historySize == 0) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        this.takeBack(this.history[--this.historySize]);
+    }
+
+    // takes back the last move played and publishes the position before it, exactly as it was; redo() plays it again
+    // until another move is played through performChessMove
+    public void undoLastMove() {
+        if (this.historySize == 0) {
+            throw new IllegalStateException("There is no move to undo");
+        }
+        long record = this.history[--this.historySize];
+        this.takeBack(record);
+        if (this.redoSize == this.redoMoves.length) {
+            this.redoMoves = Arrays.copyOf(this.redoMoves, this.redoSize * 2);
+        }
+        this.redoMoves[this.redoSize++] = MoveRecord.getMove(record);
+
+        // the promoted piece stays known after a promotion, as performChessMove leaves it
+        PieceType promotion = Move.getPromotion(this.lastMove);
+        ChessPiece piece = this.board.piece(Move.getTo(this.lastMove));
+        this.promoted = promotion != null && piece != null && piece.getType() == promotion ? piece : null;
+        // a move was played from this position, so the game was not over
+        this.checkmate = false;
+        this.stalemate = false;
+        this.draw = this.drawType();
+        this.publish();
+    }
+
+    public boolean canUndo() {
+        return this.historySize > 0;
+    }
+
+    public boolean canRedo() {
+        return this.redoSize > 0;
+    }
+
+    // plays the last move taken back by undoLastMove through performChessMove, so a position changed since then with
+    // makeMove gets the usual ChesException for an illegal move
+    public ChessPiece redo() {
+        if (this.redoSize == 0) {
+            throw new IllegalStateException("There is no move to redo");
+        }
+        int remaining = this.redoSize - 1;
+        ChessPiece capturedPiece = this.performChessMove(this.redoMoves[remaining]);
+        this.redoSize = remaining;
+        return capturedPiece;
+    }
+
     public ChessPiece performChessMove(ChessPosition sourcePosition, ChessPosition targetPosition) {
         Position source = sourcePosition.toPosition();
         Position target = targetPosition.toPosition();
         this.validateSourcePosition(source);
         this.validateTargetPosition(source, target);
-        Piece capturedPiece = this.makeMove(source, target);
+        int from = ChessBoard.square(source);
+        int to = ChessBoard.square(target);
+        long record = this.recordBefore(from, to);
+        Piece capturedPiece = this.makeMove(from, to);
         if (testCheck(this.currentPlayer)) {
-            this.undoMove(source, target, capturedPiece);
+            this.undoMove(from, to, record);
+            this.restoreStateKey(MoveRecord.getCastlingRights(record));
             throw new ChesException("You can't put yourself in check");
         }
-        ChessPiece movedPiece = (ChessPiece) this.board.piece(target);
+        this.redoSize = 0;
+        ChessPiece movedPiece = this.board.piece(to);
+        this.updateHalfmoveClock(movedPiece, capturedPiece);
 
         // promotion
         this.promoted = null;
-        if (movedPiece instanceof Piece) {
+        this.lastMove = Move.encode(from, to);
+        if (movedPiece instanceof Pawn) {
             if (movedPiece.getColor() == Color.WHITE && target.getRow() == 0 || movedPiece.getColor() == Color.BLACK && target.getRow() == 7) {
-                this.promoted = (ChessPiece) this.board.piece(target);
-                this.promoted = this.replacePromotedPiece("Q");
+                // not through replacePromotedPiece, which records and publishes a finished move
+                record = MoveRecord.withPromotion(record, movedPiece.getMoveCount());
+                this.promoted = this.promote(to, "Q");
+                this.lastMove = Move.encode(from, to, PieceType.QUEEN);
             }
         }
 
 
+        // en passant
+        if (movedPiece instanceof Pawn && (target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2)) {
+            this.enPassantVulnerable = movedPiece;
+        } else {
+            this.enPassantVulnerable = null;
+        }
+        this.updateStateKey(0L);
+
         this.check = (this.testCheck(this.opponent(this.currentPlayer)));
 
         if (this.testCheckMate(this.opponent(this.currentPlayer))) {
             this.checkmate = true;
+            record |= MoveRecord.MATE;
         } else {
+            this.stalemate = this.testStalemate(this.opponent(this.currentPlayer));
             this.nextTurn();
+            this.recordPosition();
+            this.draw = this.drawType();
         }
-
-        // en passant
-        if (movedPiece instanceof Pawn && (target.getRow() == source.getRow() - 2 || target.getRow() == source.getRow() + 2)) {
-            this.enPassantVulnerable = movedPiece;
-        } else {
-            this.enPassantVulnerable = null;
-        }
+        this.pushRecord(MoveRecord.withMove(record, this.lastMove));
+        this.publish();
 
         return (ChessPiece) capturedPiece;
     }
 
+    // performChessMove for an encoded move, promoting to the piece the move names
+    public ChessPiece performChessMove(int move) {
+        ChessMove chessMove = ChessMove.fromMove(move);
+        ChessPiece capturedPiece = this.performChessMove(chessMove.getSource(), chessMove.getTarget());
+        if (this.promoted != null && chessMove.getPromotion() != null) {
+            this.replacePromotedPiece(String.valueOf(chessMove.getPromotion().getLetter()));
+        }
+        return capturedPiece;
+    }
+
     public ChessPiece replacePromotedPiece(String type) {
         if (this.promoted == null) {
             throw new IllegalStateException("There is no piece to be promoted");
@@ -123,17 +466,145 @@ public class ChessMatch {
             return this.promoted;
         }
 
-        Position pos = this.promoted.getChessPosition().toPosition();
-        Piece p = this.board.removePiece(pos);
-        piecesOnTheBoard.remove(p);
+        ChessPiece newPiece = this.promote(this.promoted.getSquare(), type);
+        long record = this.history[this.historySize - 1];
+        // the new piece may give or lift a check the queen did not, so the end of the move is settled again
+        Color defender = this.opponent(newPiece.getColor());
+        boolean mate = this.testCheckMate(defender);
+        if (mate && !this.checkmate) {
+            this.previousTurn();
+            this.gamePly--;
+            record |= MoveRecord.MATE;
+        } else if (!mate && this.checkmate) {
+            this.nextTurn();
+            this.gamePly++;
+            record &= ~MoveRecord.MATE;
+        }
+        this.checkmate = mate;
+        this.check = this.testCheck(defender);
+        this.stalemate = !mate && this.testStalemate(defender);
+        this.updateStateKey(0L);
+        if (!this.checkmate) {
+            // the position recorded by performChessMove had the queen
+            this.positionKeys[this.gamePly & (KEY_RING_SIZE - 1)] = this.getZobristKey();
+            this.draw = this.drawType();
+        }
+        this.lastMove = Move.encode(Move.getFrom(this.lastMove), Move.getTo(this.lastMove), newPiece.getType());
+        this.history[this.historySize - 1] = MoveRecord.withMove(record, this.lastMove);
+        this.publish();
 
-        ChessPiece newPiece = this.newPiece(type, this.promoted.getColor());
-        this.board.placePiece(newPiece, pos);
-        this.piecesOnTheBoard.add(newPiece);
+        return newPiece;
+    }
+
+    private ChessPiece promote(int square, String type) {
+        ChessPiece p = (ChessPiece) this.board.removePiece(square);
+        this.piecesOnTheBoard.remove(p);
 
+        ChessPiece newPiece = this.newPiece(type, p.getColor());
+        this.board.placePiece(newPiece, square);
+        this.piecesOnTheBoard.add(newPiece);
         return newPiece;
     }
 
+    private void pushRecord(long record) {
+        if (this.historySize == this.history.length) {
+            this.history = Arrays.copyOf(this.history, this.historySize * 2);
+        }
+        this.history[this.historySize++] = record;
+    }
+
+    // the state before a move from one square to another, with its capture flags
+    private long recordBefore(int from, int to) {
+        int enPassantSquare = this.enPassantVulnerable == null ? -1 : this.enPassantVulnerable.getSquare();
+        long record = MoveRecord.encode(this.castlingRights, enPassantSquare, this.check, this.lastMove, this.halfmoveClock);
+        if (this.board.isOccupied(to)) {
+            record |= MoveRecord.CAPTURE;
+        } else if (this.board.piece(from) instanceof Pawn && ChessBoard.column(from) != ChessBoard.column(to)) {
+            record |= MoveRecord.CAPTURE | MoveRecord.EN_PASSANT;
+        }
+        return record;
+    }
+
+    // everything but the promotion choice, checkmate, stalemate and draw, which undoLastMove works out itself
+    private void takeBack(long record) {
+        int move = MoveRecord.getMove(record);
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        // a mating move keeps the winner as the current player
+        if (!MoveRecord.is(record, MoveRecord.MATE)) {
+            this.previousTurn();
+            this.gamePly--;
+        }
+
+        if (MoveRecord.is(record, MoveRecord.PROMOTION)) {
+            ChessPiece piece = (ChessPiece) this.board.removePiece(to);
+            this.piecesOnTheBoard.remove(piece);
+            ChessPiece pawn = new Pawn(this.board, piece.getColor(), this);
+            pawn.setMoveCount(MoveRecord.getPawnMoveCount(record));
+            this.board.placePiece(pawn, to);
+            this.piecesOnTheBoard.add(pawn);
+        }
+        this.undoMove(from, to, record);
+
+        int enPassantSquare = MoveRecord.getEnPassantSquare(record);
+        this.enPassantVulnerable = enPassantSquare < 0 ? null : this.board.piece(enPassantSquare);
+        this.check = MoveRecord.is(record, MoveRecord.CHECK);
+        this.halfmoveClock = MoveRecord.getHalfmoveClock(record);
+        this.lastMove = MoveRecord.getLastMove(record);
+        this.restoreStateKey(MoveRecord.getCastlingRights(record));
+    }
+
+    // snapshots are built completely before the volatile write, which is what makes them safe to hand to other threads
+    private void publish() {
+        PositionSnapshot previous = this.snapshot;
+        long version = previous == null ? 0 : previous.getVersion() + 1;
+        this.snapshot = new PositionSnapshot(version, this.board, this.turn, this.currentPlayer, this.check, this.checkmate,
+                this.draw, this.halfmoveClock, this.lastMove, this.getZobristKey());
+    }
+
+    private void updateHalfmoveClock(ChessPiece movedPiece, Piece capturedPiece) {
+        if (movedPiece instanceof Pawn || capturedPiece != null) {
+            this.halfmoveClock = 0;
+        } else {
+            this.halfmoveClock++;
+        }
+    }
+
+    private void recordPosition() {
+        this.gamePly++;
+        this.positionKeys[this.gamePly & (KEY_RING_SIZE - 1)] = this.getZobristKey();
+    }
+
+    // earlier occurrences of the current position, counted up to limit; only every other position of the reversible
+    // window has the same side to move
+    private int repetitions(int limit) {
+        long key = this.positionKeys[this.gamePly & (KEY_RING_SIZE - 1)];
+        int window = Math.min(Math.min(this.halfmoveClock, this.gamePly), KEY_RING_SIZE - 1);
+        int count = 0;
+        for (int back = 4; back <= window; back += 2) {
+            if (this.positionKeys[(this.gamePly - back) & (KEY_RING_SIZE - 1)] == key && ++count >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private DrawType drawType() {
+        if (this.stalemate) {
+            return DrawType.STALEMATE;
+        }
+        if (this.halfmoveClock >= FIFTY_MOVE_LIMIT) {
+            return DrawType.FIFTY_MOVE_RULE;
+        }
+        if (this.isThreefoldRepetition()) {
+            return DrawType.THREEFOLD_REPETITION;
+        }
+        if (this.isInsufficientMaterial()) {
+            return DrawType.INSUFFICIENT_MATERIAL;
+        }
+        return null;
+    }
+
     private ChessPiece newPiece(String type, Color color) {
         if (type.equals("B")) return new Bishop(this.board, color);
         if (type.equals("N")) return new Knight(this.board, color);
@@ -141,94 +612,86 @@ public class ChessMatch {
         return new Queen(this.board, color);
     }
 
-    private Piece makeMove(Position source, Position target) {
-        ChessPiece piece = (ChessPiece) this.board.removePiece(source);
+    private ChessPiece copyPiece(ChessPiece piece) {
+        ChessPiece copy;
+        switch (piece.getType()) {
+            case PAWN:
+                copy = new Pawn(this.board, piece.getColor(), this);
+                break;
+            case KING:
+                copy = new King(this.board, piece.getColor(), this);
+                break;
+            default:
+                copy = this.newPiece(String.valueOf(piece.getType().getLetter()), piece.getColor());
+        }
+        copy.setMoveCount(piece.getMoveCount());
+        return copy;
+    }
+
+    private Piece makeMove(int from, int to) {
+        ChessPiece piece = (ChessPiece) this.board.removePiece(from);
         piece.increaseMoveCount();
-        Piece capturedPiece = this.board.removePiece(target);
-        this.board.placePiece(piece, target);
+        Piece capturedPiece = this.board.removePiece(to);
+        this.board.placePiece(piece, to);
         if (capturedPiece != null) {
-            this.piecesOnTheBoard.remove(capturedPiece);
+            this.piecesOnTheBoard.remove((ChessPiece) capturedPiece);
             this.capturedPieces.add(capturedPiece);
         }
 
         // king side castling
-        if (piece instanceof King && target.getColumn() == source.getColumn() + 2) {
-            Position rookSource = new Position(source.getRow(), source.getColumn() + 3);
-            Position rookTarget = new Position(source.getRow(), source.getColumn() + 1);
-            ChessPiece rook = (ChessPiece) this.board.removePiece(rookSource);
-            this.board.placePiece(rook, rookTarget);
+        if (piece instanceof King && to == from + 2) {
+            ChessPiece rook = (ChessPiece) this.board.removePiece(from + 3);
+            this.board.placePiece(rook, from + 1);
             rook.increaseMoveCount();
         }
 
         // queen side castling
-        if (piece instanceof King && target.getColumn() == source.getColumn() - 2) {
-            Position rookSource = new Position(source.getRow(), source.getColumn() - 4);
-            Position rookTarget = new Position(source.getRow(), source.getColumn() - 1);
-            ChessPiece rook = (ChessPiece) this.board.removePiece(rookSource);
-            this.board.placePiece(rook, rookTarget);
+        if (piece instanceof King && to == from - 2) {
+            ChessPiece rook = (ChessPiece) this.board.removePiece(from - 4);
+            this.board.placePiece(rook, from - 1);
             rook.increaseMoveCount();
         }
 
-        // en passant
+        // en passant: the captured pawn stands beside the moving one
         if (piece instanceof Pawn) {
-            if (source.getColumn() != target.getColumn() && capturedPiece == null) {
-                Position pawnPosition;
-                if (piece.getColor() == Color.WHITE) {
-                    pawnPosition = new Position(target.getRow() + 1, target.getColumn());
-                } else {
-                    pawnPosition = new Position(target.getRow() - 1, target.getColumn());
-                }
-                capturedPiece = this.board.removePiece(pawnPosition);
+            if (ChessBoard.column(from) != ChessBoard.column(to) && capturedPiece == null) {
+                capturedPiece = this.board.removePiece(ChessBoard.square(ChessBoard.row(from), ChessBoard.column(to)));
                 capturedPieces.add(capturedPiece);
-                piecesOnTheBoard.remove(capturedPiece);
+                piecesOnTheBoard.remove((ChessPiece) capturedPiece);
             }
         }
 
+        this.updateStateKey(ChessBoard.bit(from) | ChessBoard.bit(to));
         return capturedPiece;
     }
 
-    private void undoMove(Position source, Position target, Piece capturedPiece) {
-        ChessPiece piece = (ChessPiece) this.board.removePiece(target);
+    private void undoMove(int from, int to, long record) {
+        ChessPiece piece = (ChessPiece) this.board.removePiece(to);
         piece.decreaseMoveCount();
-        this.board.placePiece(piece, source);
-
-        if (capturedPiece != null) {
-            this.board.placePiece(capturedPiece, target);
-            this.capturedPieces.remove(capturedPiece);
-            this.piecesOnTheBoard.add(capturedPiece);
+        this.board.placePiece(piece, from);
+
+        if (MoveRecord.is(record, MoveRecord.CAPTURE)) {
+            // captures are undone in reverse order, so the piece is always the last one captured
+            Piece capturedPiece = this.capturedPieces.remove(this.capturedPieces.size() - 1);
+            // a pawn taken en passant stood beside the capturing one
+            int square = MoveRecord.is(record, MoveRecord.EN_PASSANT) ? ChessBoard.square(ChessBoard.row(from), ChessBoard.column(to)) : to;
+            this.board.placePiece(capturedPiece, square);
+            this.piecesOnTheBoard.add((ChessPiece) capturedPiece);
         }
 
         // king side castling
-        if (piece instanceof King && target.getColumn() == source.getColumn() + 2) {
-            Position rookSource = new Position(source.getRow(), source.getColumn() + 3);
-            Position rookTarget = new Position(source.getRow(), source.getColumn() + 1);
-            ChessPiece rook = (ChessPiece) this.board.removePiece(rookTarget);
-            this.board.placePiece(rook, rookSource);
+        if (piece instanceof King && to == from + 2) {
+            ChessPiece rook = (ChessPiece) this.board.removePiece(from + 1);
+            this.board.placePiece(rook, from + 3);
             rook.decreaseMoveCount();
         }
 
         // queen side castling
-        if (piece instanceof King && target.getColumn() == source.getColumn() - 2) {
-            Position rookSource = new Position(source.getRow(), source.getColumn() - 4);
-            Position rookTarget = new Position(source.getRow(), source.getColumn() - 1);
-            ChessPiece rook = (ChessPiece) this.board.removePiece(rookTarget);
-            this.board.placePiece(rook, rookSource);
+        if (piece instanceof King && to == from - 2) {
+            ChessPiece rook = (ChessPiece) this.board.removePiece(from - 1);
+            this.board.placePiece(rook, from - 4);
             rook.decreaseMoveCount();
         }
-
-        // en passant
-        if (piece instanceof Pawn) {
-            if (source.getColumn() != target.getColumn() && capturedPiece == enPassantVulnerable) {
-                ChessPiece pawn = (ChessPiece) this.board.removePiece(target);
-                Position pawnPosition;
-                if (piece.getColor() == Color.WHITE) {
-                    pawnPosition = new Position(3, target.getColumn());
-                } else {
-                    pawnPosition = new Position(4, target.getColumn());
-                }
-                this.board.placePiece(pawn, pawnPosition);
-            }
-        }
     }
 
     private void validateSourcePosition(Position position) {
@@ -252,6 +715,74 @@ public class ChessMatch {
     private void nextTurn() {
         this.turn++;
         this.currentPlayer = currentPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
+        this.stateKey ^= Zobrist.blackToMove();
+        this.updateStateKey(0L);
+    }
+
+    // the castling rights come from the record, as recomputing them would need the move counts of the castling pieces
+    private void restoreStateKey(int rights) {
+        int file = this.enPassantFile();
+        this.stateKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(rights);
+        this.stateKey ^= Zobrist.enPassant(this.enPassantFile) ^ Zobrist.enPassant(file);
+        this.castlingRights = rights;
+        this.enPassantFile = file;
+    }
+
+    private void previousTurn() {
+        this.turn--;
+        this.currentPlayer = currentPlayer == Color.WHITE ? Color.BLACK : Color.WHITE;
+        this.stateKey ^= Zobrist.blackToMove();
+    }
+
+    // castling rights and the en passant file are functions of the board, so only their change is hashed in;
+    // the rights can only change when a move touches one of the king or rook home squares
+    private void updateStateKey(long changedSquares) {
+        int rights = (changedSquares & CASTLING_SQUARES) != 0 ? this.castlingRights() : this.castlingRights;
+        int file = this.enPassantFile();
+        this.stateKey ^= Zobrist.castling(this.castlingRights) ^ Zobrist.castling(rights);
+        this.stateKey ^= Zobrist.enPassant(this.enPassantFile) ^ Zobrist.enPassant(file);
+        this.castlingRights = rights;
+        this.enPassantFile = file;
+    }
+
+    private int castlingRights() {
+        int rights = 0;
+        if (this.isUnmoved(60, Color.WHITE, PieceType.KING)) {
+            if (this.isUnmoved(63, Color.WHITE, PieceType.ROOK)) {
+                rights |= Zobrist.WHITE_KING_SIDE;
+            }
+            if (this.isUnmoved(56, Color.WHITE, PieceType.ROOK)) {
+                rights |= Zobrist.WHITE_QUEEN_SIDE;
+            }
+        }
+        if (this.isUnmoved(4, Color.BLACK, PieceType.KING)) {
+            if (this.isUnmoved(7, Color.BLACK, PieceType.ROOK)) {
+                rights |= Zobrist.BLACK_KING_SIDE;
+            }
+            if (this.isUnmoved(0, Color.BLACK, PieceType.ROOK)) {
+                rights |= Zobrist.BLACK_QUEEN_SIDE;
+            }
+        }
+        return rights;
+    }
+
+    private boolean isUnmoved(int square, Color color, PieceType type) {
+        ChessPiece piece = this.board.piece(square);
+        return piece != null && piece.getColor() == color && piece.getType() == type && piece.getMoveCount() == 0;
+    }
+
+    // the en passant file only counts when a pawn of the side to move can actually capture
+    private int enPassantFile() {
+        if (this.enPassantVulnerable == null || this.enPassantVulnerable.getColor() == this.currentPlayer || !this.enPassantVulnerable.isOnBoard()) {
+            return -1;
+        }
+        Color color = this.enPassantVulnerable.getColor();
+        int square = this.enPassantVulnerable.getSquare();
+        int target = color == Color.WHITE ? square + ChessBoard.SIZE : square - ChessBoard.SIZE;
+        if ((Attacks.pawnAttacks(color, target) & this.board.getPieces(this.opponent(color), PieceType.PAWN)) == 0) {
+            return -1;
+        }
+        return ChessBoard.column(square);
     }
 
     private Color opponent(Color color) {
@@ -259,51 +790,126 @@ public class ChessMatch {
     }
 
     private ChessPiece king(Color color) {
-        List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color).collect(Collectors.toList());
-        for (Piece p : list) {
-            if (p instanceof King) {
-                return (ChessPiece) p;
-            }
+        ChessPiece king = this.piecesOnTheBoard.getKing(color);
+        if (king == null) {
+            throw new IllegalStateException("There is no " + color + " king on the board");
         }
-        throw new IllegalStateException("There is no " + color + " king on the board");
+        return king;
     }
 
-    private boolean testCheck(Color color) {
-        Position kingPosition = this.king(color).getChessPosition().toPosition();
-        List<Piece> opponentsPiece = this.piecesOnTheBoard.stream().filter(x -> ((ChessPiece)x).getColor() == this.opponent(color)).toList();
+    boolean testCheck(Color color) {
+        return this.board.isAttacked(this.king(color).getSquare(), this.opponent(color));
+    }
 
-        for (Piece p: opponentsPiece) {
-            boolean[][] mat = p.possibleMoves();
-            if (mat[kingPosition.getRow()][kingPosition.getColumn()]) {
-                return true;
-            }
+    boolean testCheckMate(Color color) {
+        return this.testCheck(color) && !this.hasLegalMove(color);
+    }
+
+    private boolean testStalemate(Color color) {
+        return !this.testCheck(color) && !this.hasLegalMove(color);
+    }
+
+    private boolean hasLegalMove(Color color) {
+        return MoveGenerator.generate(this.board, color, this.enPassantSquare(color), this.moveBuffer) > 0;
+    }
+
+    private int enPassantSquare(Color color) {
+        if (this.enPassantVulnerable == null || this.enPassantVulnerable.getColor() == color) {
+            return -1;
         }
-        return false;
+        return this.enPassantVulnerable.getSquare();
     }
 
-    private boolean testCheckMate(Color color) {
-        if (!this.testCheck(color)) {
-            return false;
+    // pieces placed by Fen start as moved, except pawns on their home row; setUpState then restores the castling pieces
+    void setUpPiece(int square, PieceType type, Color color) {
+        if (type == PieceType.KING && this.board.getPieces(color, PieceType.KING) != 0) {
+            throw new ChesException("Invalid FEN: there must be one " + color + " king");
         }
-        List<Piece> list = this.piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color).toList();
-        for (Piece p : list) {
-            boolean mat[][] = p.possibleMoves();
-            for (int i = 0; i < this.board.getRows(); i++) {
-                for (int j = 0; j < this.board.getColumns(); j++) {
-                    if (mat[i][j]) {
-                        Position source = ((ChessPiece)p).getChessPosition().toPosition();
-                        Position target = new Position(i, j);
-                        Piece capturedPiece = this.makeMove(source, target);
-                        boolean testCheck = this.testCheck(color);
-                        this.undoMove(source, target, capturedPiece);
-                        if (!testCheck) {
-                            return false;
-                        }
-                    }
+        int row = ChessBoard.row(square);
+        ChessPiece piece;
+        switch (type) {
+            case PAWN:
+                if (row == 0 || row == ChessBoard.SIZE - 1) {
+                    throw new ChesException("Invalid FEN: pawns can not stand on the first or last row");
                 }
+                piece = new Pawn(this.board, color, this);
+                break;
+            case KNIGHT:
+                piece = new Knight(this.board, color);
+                break;
+            case BISHOP:
+                piece = new Bishop(this.board, color);
+                break;
+            case ROOK:
+                piece = new Rook(this.board, color);
+                break;
+            case QUEEN:
+                piece = new Queen(this.board, color);
+                break;
+            default:
+                piece = new King(this.board, color, this);
+        }
+        boolean homePawn = type == PieceType.PAWN && row == (color == Color.WHITE ? 6 : 1);
+        piece.setMoveCount(homePawn ? 0 : 1);
+        this.board.placePiece(piece, square);
+        this.piecesOnTheBoard.add(piece);
+        if (this.promotedPieces(color) + Long.bitCount(this.board.getPieces(color, PieceType.PAWN)) > 8) {
+            throw new ChesException("Invalid FEN: " + color + " has more pieces than its pawns could have promoted to");
+        }
+    }
+
+    // the pieces beyond the two knights, bishops and rooks and the queen a side starts with
+    private int promotedPieces(Color color) {
+        return Math.max(0, Long.bitCount(this.board.getPieces(color, PieceType.KNIGHT)) - 2)
+                + Math.max(0, Long.bitCount(this.board.getPieces(color, PieceType.BISHOP)) - 2)
+                + Math.max(0, Long.bitCount(this.board.getPieces(color, PieceType.ROOK)) - 2)
+                + Math.max(0, Long.bitCount(this.board.getPieces(color, PieceType.QUEEN)) - 1);
+    }
+
+    // rights whose king or rook is not on its home square are dropped; an en passant square needs the pawn in front of it
+    void setUpState(Color currentPlayer, int castlingRights, int enPassantSquare, int halfmoveClock, int fullmoveNumber) {
+        this.currentPlayer = currentPlayer;
+        this.turn = 2 * fullmoveNumber - (currentPlayer == Color.WHITE ? 1 : 0);
+        this.halfmoveClock = halfmoveClock;
+        this.setUpCastling(castlingRights, Zobrist.WHITE_KING_SIDE, Color.WHITE, 60, 63);
+        this.setUpCastling(castlingRights, Zobrist.WHITE_QUEEN_SIDE, Color.WHITE, 60, 56);
+        this.setUpCastling(castlingRights, Zobrist.BLACK_KING_SIDE, Color.BLACK, 4, 7);
+        this.setUpCastling(castlingRights, Zobrist.BLACK_QUEEN_SIDE, Color.BLACK, 4, 0);
+        if (enPassantSquare >= 0) {
+            int pawnSquare = currentPlayer == Color.WHITE ? enPassantSquare + ChessBoard.SIZE : enPassantSquare - ChessBoard.SIZE;
+            ChessPiece pawn = this.board.piece(pawnSquare);
+            if (pawn == null || pawn.getType() != PieceType.PAWN || pawn.getColor() == currentPlayer || this.board.isOccupied(enPassantSquare)) {
+                throw new ChesException("Invalid FEN: there is no pawn to take en passant");
             }
+            this.enPassantVulnerable = pawn;
+        }
+    }
+
+    private void setUpCastling(int castlingRights, int right, Color color, int kingSquare, int rookSquare) {
+        if ((castlingRights & right) == 0) {
+            return;
+        }
+        ChessPiece king = this.board.piece(kingSquare);
+        ChessPiece rook = this.board.piece(rookSquare);
+        if (king != null && king.getColor() == color && king.getType() == PieceType.KING
+                && rook != null && rook.getColor() == color && rook.getType() == PieceType.ROOK) {
+            king.setMoveCount(0);
+            rook.setMoveCount(0);
+        }
+    }
+
+    // Zobrist.WHITE_KING_SIDE and the other rights that are still available
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    // the square a pawn can take en passant on, or -1
+    public int getEnPassantSquare() {
+        if (this.enPassantFile < 0) {
+            return -1;
         }
-        return true;
+        int square = this.enPassantVulnerable.getSquare();
+        return this.enPassantVulnerable.getColor() == Color.WHITE ? square + ChessBoard.SIZE : square - ChessBoard.SIZE;
     }
 
     private void placeNewPiece(char column, int row, ChessPiece piece) {
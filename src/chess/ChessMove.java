@@ -0,0 +1,36 @@
+package chess;
+
+public class ChessMove {
+
+    private ChessPosition source;
+    private ChessPosition target;
+    private PieceType promotion;
+
+    public ChessMove(ChessPosition source, ChessPosition target, PieceType promotion) {
+        this.source = source;
+        this.target = target;
+        this.promotion = promotion;
+    }
+
+    public ChessPosition getSource() {
+        return source;
+    }
+
+    public ChessPosition getTarget() {
+        return target;
+    }
+
+    public PieceType getPromotion() {
+        return promotion;
+    }
+
+    static ChessMove fromMove(int move) {
+        return new ChessMove(ChessPosition.fromSquare(Move.getFrom(move)), ChessPosition.fromSquare(Move.getTo(move)), Move.getPromotion(move));
+    }
+
+    @Override
+    public String toString() {
+        String s = "" + this.source + this.target;
+        return this.promotion == null ? s : s + Character.toLowerCase(this.promotion.getLetter());
+    }
+}
@@ -30,12 +30,54 @@ public abstract class ChessPiece extends Piece {
         this.moveCount--;
     }
 
+    void setMoveCount(int moveCount) {
+        this.moveCount = moveCount;
+    }
+
+    public abstract PieceType getType();
+
+    public abstract long possibleMovesMask();
+
+    @Override
+    public boolean[][] possibleMoves() {
+        boolean[][] mat = new boolean[this.getBoard().getRows()][this.getBoard().getColumns()];
+        long targets = this.possibleMovesMask();
+        while (targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            mat[ChessBoard.row(square)][ChessBoard.column(square)] = true;
+            targets &= targets - 1;
+        }
+        return mat;
+    }
+
+    @Override
+    public boolean possibleMove(Position position) {
+        return (this.possibleMovesMask() & ChessBoard.bit(ChessBoard.square(position))) != 0;
+    }
+
+    @Override
+    public boolean isThereAnyPossibleMove() {
+        return this.possibleMovesMask() != 0;
+    }
+
     public ChessPosition getChessPosition() {
         return ChessPosition.fromPosition(this.position);
     }
 
+    boolean isOnBoard() {
+        return this.position != null;
+    }
+
+    public int getSquare() {
+        return ChessBoard.square(this.position);
+    }
+
+    protected ChessBoard getChessBoard() {
+        return (ChessBoard) this.getBoard();
+    }
+
     protected  boolean isThereOpponentPiece(Position position) {
-        ChessPiece piece = (ChessPiece) this.getBoard().piece(position);
-        return piece != null && piece.getColor() != this.getColor();
+        Color opponent = this.getColor() == Color.WHITE ? Color.BLACK : Color.WHITE;
+        return (this.getChessBoard().getOccupied(opponent) & ChessBoard.bit(ChessBoard.square(position))) != 0;
     }
 }
@@ -31,6 +31,14 @@ public class ChessPosition {
         return new ChessPosition((char) ('a' + position.getColumn()), 8 - position.getRow());
     }
 
+    protected int toSquare() {
+        return ChessBoard.square(8 - this.row, this.column - 'a');
+    }
+
+    protected static ChessPosition fromSquare(int square) {
+        return new ChessPosition((char) ('a' + ChessBoard.column(square)), 8 - ChessBoard.row(square));
+    }
+
     @Override
     public String toString() {
         return "" + this.column + this.row;
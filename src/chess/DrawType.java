@@ -0,0 +1,8 @@
+package chess;
+
+public enum DrawType {
+    STALEMATE,
+    FIFTY_MOVE_RULE,
+    THREEFOLD_REPETITION,
+    INSUFFICIENT_MATERIAL
+}
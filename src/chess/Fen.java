@@ -0,0 +1,300 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+// Forsyth-Edwards Notation in both directions, read straight from a CharSequence or the bytes of a buffer and written
+// straight into a StringBuilder or a buffer, without any intermediate strings. The halfmove clock and fullmove number
+// may be left out, as in EPD lines
+public final class Fen {
+
+    public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final PieceType[] TYPES = PieceType.values();
+    // the target is passed along instead of captured, so writing allocates nothing
+    private static final Sink<StringBuilder> TO_BUILDER = (sb, c) -> sb.append(c);
+    private static final Sink<ByteBuffer> TO_BUFFER = (buffer, c) -> buffer.put((byte) c);
+
+    private Fen() {
+    }
+
+    public static ChessMatch read(CharSequence fen) {
+        return new ChessMatch(fen);
+    }
+
+    // the ASCII text in buffer[start, end)
+    public static ChessMatch read(ByteBuffer buffer, int start, int end) {
+        return new ChessMatch(new AsciiSequence(buffer, start, end));
+    }
+
+    public static String write(ChessMatch chessMatch) {
+        StringBuilder sb = new StringBuilder(90);
+        write(chessMatch, sb);
+        return sb.toString();
+    }
+
+    public static void write(ChessMatch chessMatch, StringBuilder sb) {
+        write(chessMatch, sb, TO_BUILDER);
+    }
+
+    // ASCII from the buffer's position on; returns the number of bytes written
+    public static int write(ChessMatch chessMatch, ByteBuffer buffer) {
+        int start = buffer.position();
+        write(chessMatch, buffer, TO_BUFFER);
+        return buffer.position() - start;
+    }
+
+    // the en passant square is only written when a capture is possible, as the Zobrist key has it. After checkmate the
+    // winner stays ChessMatch's current player and the turn does not pass, but the mated side is the one to move
+    private static <T> void write(ChessMatch chessMatch, T out, Sink<T> sink) {
+        boolean mated = chessMatch.isCheckmate();
+        Color toMove = chessMatch.getCurrentPlayer();
+        if (mated) {
+            toMove = toMove == Color.WHITE ? Color.BLACK : Color.WHITE;
+        }
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            int empty = 0;
+            for (int column = 0; column < ChessBoard.SIZE; column++) {
+                ChessPiece piece = chessMatch.getPiece(ChessBoard.square(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sink.put(out, (char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = piece.getType().getLetter();
+                sink.put(out, piece.getColor() == Color.WHITE ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                sink.put(out, (char) ('0' + empty));
+            }
+            if (row < ChessBoard.SIZE - 1) {
+                sink.put(out, '/');
+            }
+        }
+
+        sink.put(out, ' ');
+        sink.put(out, toMove == Color.WHITE ? 'w' : 'b');
+
+        sink.put(out, ' ');
+        int rights = chessMatch.getCastlingRights();
+        if (rights == 0) {
+            sink.put(out, '-');
+        }
+        if ((rights & Zobrist.WHITE_KING_SIDE) != 0) {
+            sink.put(out, 'K');
+        }
+        if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) {
+            sink.put(out, 'Q');
+        }
+        if ((rights & Zobrist.BLACK_KING_SIDE) != 0) {
+            sink.put(out, 'k');
+        }
+        if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) {
+            sink.put(out, 'q');
+        }
+
+        sink.put(out, ' ');
+        int enPassant = chessMatch.getEnPassantSquare();
+        if (enPassant < 0) {
+            sink.put(out, '-');
+        } else {
+            sink.put(out, (char) ('a' + ChessBoard.column(enPassant)));
+            sink.put(out, (char) ('8' - ChessBoard.row(enPassant)));
+        }
+
+        sink.put(out, ' ');
+        writeNumber(chessMatch.getHalfmoveClock(), out, sink);
+        sink.put(out, ' ');
+        int turn = mated ? chessMatch.getTurn() + 1 : chessMatch.getTurn();
+        writeNumber((turn + 1) / 2, out, sink);
+    }
+
+    private static <T> void writeNumber(int value, T out, Sink<T> sink) {
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            sink.put(out, (char) ('0' + value / divisor % 10));
+        }
+    }
+
+    // called by the ChessMatch constructor on its empty board
+    static void setUp(ChessMatch chessMatch, CharSequence fen) {
+        int length = fen.length();
+        int pos = skipSpaces(fen, 0);
+
+        int row = 0;
+        int column = 0;
+        for (; pos < length && fen.charAt(pos) != ' '; pos++) {
+            char c = fen.charAt(pos);
+            if (c == '/') {
+                if (column != ChessBoard.SIZE || ++row >= ChessBoard.SIZE) {
+                    throw new ChesException("Invalid FEN: every row must have 8 squares");
+                }
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+                if (column > ChessBoard.SIZE) {
+                    throw new ChesException("Invalid FEN: every row must have 8 squares");
+                }
+            } else {
+                PieceType type = type(Character.toUpperCase(c));
+                if (type == null || column >= ChessBoard.SIZE) {
+                    throw new ChesException("Invalid FEN: unexpected '" + c + "' in the board");
+                }
+                chessMatch.setUpPiece(ChessBoard.square(row, column++), type, Character.isUpperCase(c) ? Color.WHITE : Color.BLACK);
+            }
+        }
+        if (row != ChessBoard.SIZE - 1 || column != ChessBoard.SIZE) {
+            throw new ChesException("Invalid FEN: the board must have 8 rows of 8 squares");
+        }
+
+        pos = skipSpaces(fen, pos);
+        Color currentPlayer;
+        if (pos < length && fen.charAt(pos) == 'w') {
+            currentPlayer = Color.WHITE;
+        } else if (pos < length && fen.charAt(pos) == 'b') {
+            currentPlayer = Color.BLACK;
+        } else {
+            throw new ChesException("Invalid FEN: the side to move must be w or b");
+        }
+
+        pos = skipSpaces(fen, pos + 1);
+        int rights = 0;
+        if (pos < length && fen.charAt(pos) == '-') {
+            pos++;
+        } else {
+            for (; pos < length && fen.charAt(pos) != ' '; pos++) {
+                switch (fen.charAt(pos)) {
+                    case 'K':
+                        rights |= Zobrist.WHITE_KING_SIDE;
+                        break;
+                    case 'Q':
+                        rights |= Zobrist.WHITE_QUEEN_SIDE;
+                        break;
+                    case 'k':
+                        rights |= Zobrist.BLACK_KING_SIDE;
+                        break;
+                    case 'q':
+                        rights |= Zobrist.BLACK_QUEEN_SIDE;
+                        break;
+                    default:
+                        throw new ChesException("Invalid FEN: unexpected '" + fen.charAt(pos) + "' in the castling rights");
+                }
+            }
+        }
+
+        pos = skipSpaces(fen, pos);
+        int enPassant = -1;
+        if (pos < length && fen.charAt(pos) == '-') {
+            pos++;
+        } else if (pos + 1 < length) {
+            int file = fen.charAt(pos) - 'a';
+            // the square the pawn skipped, behind it as seen from the side to move
+            char rank = currentPlayer == Color.WHITE ? '6' : '3';
+            if (file < 0 || file >= ChessBoard.SIZE || fen.charAt(pos + 1) != rank) {
+                throw new ChesException("Invalid FEN: bad en passant square");
+            }
+            enPassant = ChessBoard.square('8' - rank, file);
+            pos += 2;
+        } else {
+            throw new ChesException("Invalid FEN: the en passant square is missing");
+        }
+
+        pos = skipSpaces(fen, pos);
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (pos < length) {
+            halfmoveClock = readNumber(fen, pos);
+            pos = skipSpaces(fen, skipDigits(fen, pos));
+            if (pos < length) {
+                fullmoveNumber = Math.max(1, readNumber(fen, pos));
+                pos = skipSpaces(fen, skipDigits(fen, pos));
+            }
+        }
+        if (pos < length) {
+            throw new ChesException("Invalid FEN: unexpected text after the move counters");
+        }
+        chessMatch.setUpState(currentPlayer, rights, enPassant, halfmoveClock, fullmoveNumber);
+    }
+
+    private static PieceType type(char letter) {
+        for (PieceType type : TYPES) {
+            if (type.getLetter() == letter) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static int readNumber(CharSequence fen, int pos) {
+        int end = skipDigits(fen, pos);
+        if (end == pos || end - pos > 6) {
+            throw new ChesException("Invalid FEN: the move counters must be numbers");
+        }
+        int value = 0;
+        for (; pos < end; pos++) {
+            value = value * 10 + fen.charAt(pos) - '0';
+        }
+        return value;
+    }
+
+    private static int skipDigits(CharSequence fen, int pos) {
+        while (pos < fen.length() && fen.charAt(pos) >= '0' && fen.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipSpaces(CharSequence fen, int pos) {
+        while (pos < fen.length() && Character.isWhitespace(fen.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private interface Sink<T> {
+        void put(T out, char c);
+    }
+
+    // a view of ASCII bytes as characters, so a position file is parsed in place
+    private static final class AsciiSequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        AsciiSequence(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return this.end - this.start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (this.buffer.get(this.start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(this.buffer, this.start + start, this.start + end);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[this.length()];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = this.charAt(i);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package chess;
+
+public final class Move {
+
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to) {
+        return from | (to << TO_SHIFT);
+    }
+
+    public static int encode(int from, int to, PieceType promotion) {
+        return encode(from, to) | (promotion.ordinal() << PROMOTION_SHIFT);
+    }
+
+    public static int getFrom(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static PieceType getPromotion(int move) {
+        int promotion = move >>> PROMOTION_SHIFT;
+        return promotion == 0 ? null : TYPES[promotion];
+    }
+
+    // coordinate notation, e.g. e2e4 or e7e8q
+    public static String toString(int move) {
+        return ChessMove.fromMove(move).toString();
+    }
+}
@@ -0,0 +1,193 @@
+package chess;
+
+final class MoveGenerator {
+
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    // fills moves with every strictly legal move of the given color and returns how many were written;
+    // enPassantSquare is the square of the opponent pawn that can be taken en passant, or -1
+    static int generate(ChessBoard board, Color us, int enPassantSquare, int[] moves) {
+        return generate(board, us, enPassantSquare, moves, false);
+    }
+
+    // with capturesOnly only captures, en passant and promotions are written, as the quiescence search needs
+    static int generate(ChessBoard board, Color us, int enPassantSquare, int[] moves, boolean capturesOnly) {
+        Color them = us == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long own = board.getOccupied(us);
+        long enemy = board.getOccupied(them);
+        long occupied = board.getOccupied();
+        int kingSquare = Long.numberOfTrailingZeros(board.getPieces(us, PieceType.KING));
+        long checkers = board.attackersTo(kingSquare, occupied) & enemy;
+        int count = 0;
+
+        // king steps are tested against an occupancy without the king so sliders see through it
+        long kingTargets = Attacks.kingAttacks(kingSquare) & (capturesOnly ? enemy : ~own);
+        long withoutKing = occupied ^ ChessBoard.bit(kingSquare);
+        while (kingTargets != 0) {
+            int target = Long.numberOfTrailingZeros(kingTargets);
+            if ((board.attackersTo(target, withoutKing) & enemy) == 0) {
+                moves[count++] = Move.encode(kingSquare, target);
+            }
+            kingTargets &= kingTargets - 1;
+        }
+
+        // double check: only the king can move
+        if (Long.bitCount(checkers) > 1) {
+            return count;
+        }
+
+        long evasions = ~0L;
+        if (checkers != 0) {
+            evasions = Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers)) | checkers;
+        }
+        long pinned = pinned(board, us, kingSquare);
+        long targetMask = ~own & evasions;
+        long pieceMask = capturesOnly ? targetMask & enemy : targetMask;
+
+        long knights = board.getPieces(us, PieceType.KNIGHT) & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            count = addMoves(from, Attacks.knightAttacks(from) & pieceMask, moves, count);
+            knights &= knights - 1;
+        }
+
+        long bishops = board.getPieces(us, PieceType.BISHOP) | board.getPieces(us, PieceType.QUEEN);
+        while (bishops != 0) {
+            int from = Long.numberOfTrailingZeros(bishops);
+            long targets = Attacks.bishopAttacks(from, occupied) & pieceMask;
+            count = addMoves(from, pinFilter(from, kingSquare, pinned, targets), moves, count);
+            bishops &= bishops - 1;
+        }
+
+        long rooks = board.getPieces(us, PieceType.ROOK) | board.getPieces(us, PieceType.QUEEN);
+        while (rooks != 0) {
+            int from = Long.numberOfTrailingZeros(rooks);
+            long targets = Attacks.rookAttacks(from, occupied) & pieceMask;
+            count = addMoves(from, pinFilter(from, kingSquare, pinned, targets), moves, count);
+            rooks &= rooks - 1;
+        }
+
+        int forward = us == Color.WHITE ? -ChessBoard.SIZE : ChessBoard.SIZE;
+        int startRow = us == Color.WHITE ? 6 : 1;
+        int promotionRow = us == Color.WHITE ? 1 : 6;
+        long pawns = board.getPieces(us, PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            long targets = Attacks.pawnAttacks(us, from) & enemy;
+            int one = from + forward;
+            if (!board.isOccupied(one) && (!capturesOnly || ChessBoard.row(from) == promotionRow)) {
+                targets |= ChessBoard.bit(one);
+                int two = one + forward;
+                if (ChessBoard.row(from) == startRow && !board.isOccupied(two)) {
+                    targets |= ChessBoard.bit(two);
+                }
+            }
+            targets = pinFilter(from, kingSquare, pinned, targets & targetMask);
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                if (ChessBoard.row(to) == 0 || ChessBoard.row(to) == 7) {
+                    for (PieceType promotion : PROMOTIONS) {
+                        moves[count++] = Move.encode(from, to, promotion);
+                    }
+                } else {
+                    moves[count++] = Move.encode(from, to);
+                }
+                targets &= targets - 1;
+            }
+            pawns &= pawns - 1;
+        }
+
+        // en passant
+        if (enPassantSquare >= 0) {
+            int to = enPassantSquare + forward;
+            long capturers = Attacks.pawnAttacks(them, to) & board.getPieces(us, PieceType.PAWN);
+            while (capturers != 0) {
+                int from = Long.numberOfTrailingZeros(capturers);
+                if (isLegalEnPassant(board, us, kingSquare, checkers, from, to, enPassantSquare)) {
+                    moves[count++] = Move.encode(from, to);
+                }
+                capturers &= capturers - 1;
+            }
+        }
+
+        // castling
+        if (!capturesOnly && checkers == 0 && board.piece(kingSquare).getMoveCount() == 0 && ChessBoard.column(kingSquare) == 4) {
+            if (canCastle(board, us, them, kingSquare, 3, 2)) {
+                moves[count++] = Move.encode(kingSquare, kingSquare + 2);
+            }
+            if (canCastle(board, us, them, kingSquare, -4, -2)) {
+                moves[count++] = Move.encode(kingSquare, kingSquare - 2);
+            }
+        }
+
+        return count;
+    }
+
+    private static int addMoves(int from, long targets, int[] moves, int count) {
+        while (targets != 0) {
+            moves[count++] = Move.encode(from, Long.numberOfTrailingZeros(targets));
+            targets &= targets - 1;
+        }
+        return count;
+    }
+
+    // a pinned piece may only move along the line through its king and the pinning slider
+    private static long pinFilter(int from, int kingSquare, long pinned, long targets) {
+        if ((pinned & ChessBoard.bit(from)) == 0) {
+            return targets;
+        }
+        return targets & Attacks.line(kingSquare, from);
+    }
+
+    private static long pinned(ChessBoard board, Color us, int kingSquare) {
+        Color them = us == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long queens = board.getPieces(them, PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, 0L) & (board.getPieces(them, PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(kingSquare, 0L) & (board.getPieces(them, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long blockers = Attacks.between(kingSquare, sniper) & board.getOccupied();
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.getOccupied(us);
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    // en passant removes two pawns from one row, so it is checked on the resulting occupancy
+    private static boolean isLegalEnPassant(ChessBoard board, Color us, int kingSquare, long checkers, int from, int to, int captured) {
+        Color them = us == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long steppers = board.getPieces(them, PieceType.KNIGHT) | board.getPieces(them, PieceType.PAWN);
+        if ((checkers & steppers & ~ChessBoard.bit(captured)) != 0) {
+            return false;
+        }
+        long occupied = board.getOccupied() ^ ChessBoard.bit(from) ^ ChessBoard.bit(captured) | ChessBoard.bit(to);
+        long queens = board.getPieces(them, PieceType.QUEEN);
+        return (Attacks.rookAttacks(kingSquare, occupied) & (board.getPieces(them, PieceType.ROOK) | queens)) == 0
+                && (Attacks.bishopAttacks(kingSquare, occupied) & (board.getPieces(them, PieceType.BISHOP) | queens)) == 0;
+    }
+
+    private static boolean canCastle(ChessBoard board, Color us, Color them, int kingSquare, int rookOffset, int kingOffset) {
+        ChessPiece rook = board.piece(kingSquare + rookOffset);
+        if (rook == null || rook.getType() != PieceType.ROOK || rook.getColor() != us || rook.getMoveCount() != 0) {
+            return false;
+        }
+        int step = rookOffset > 0 ? 1 : -1;
+        for (int square = kingSquare + step; square != kingSquare + rookOffset; square += step) {
+            if (board.isOccupied(square)) {
+                return false;
+            }
+        }
+        for (int square = kingSquare + step; square != kingSquare + kingOffset + step; square += step) {
+            if (board.isAttacked(square, them)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+// one entry of a match's move history packed in a long: the move and how it changed the board, and everything about
+// the position before it that can not be worked out backwards
+//
+//   bits  0-14  the move in Move encoding
+//   bit     15  a piece was captured; it is the last one in the captured pieces
+//   bit     16  the capture was en passant
+//   bit     17  a pawn promoted
+//   bit     18  the move mated, so the turn did not pass
+//   bit     19  the side to move was in check before the move
+//   bits 20-22  the move count of the promoted pawn
+//   bits 23-26  the castling rights before the move
+//   bits 27-33  the square of the pawn that could be taken en passant before the move, plus one, or 0
+//   bits 34-48  the move played before this one
+//   bits 49-63  the halfmove clock before the move, up to 32767
+final class MoveRecord {
+
+    static final long CAPTURE = 1L << 15;
+    static final long EN_PASSANT = 1L << 16;
+    static final long PROMOTION = 1L << 17;
+    static final long MATE = 1L << 18;
+    static final long CHECK = 1L << 19;
+
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final int CLOCK_MASK = 0x7FFF;
+    private static final int PAWN_MOVES_SHIFT = 20;
+    private static final int CASTLING_SHIFT = 23;
+    private static final int EN_PASSANT_SHIFT = 27;
+    private static final int LAST_MOVE_SHIFT = 34;
+    private static final int CLOCK_SHIFT = 49;
+
+    private MoveRecord() {
+    }
+
+    // the state before the move; the move itself and its flags are added once it is played
+    static long encode(int castlingRights, int enPassantSquare, boolean check, int lastMove, int halfmoveClock) {
+        return (long) castlingRights << CASTLING_SHIFT
+                | (long) (enPassantSquare + 1) << EN_PASSANT_SHIFT
+                | (check ? CHECK : 0L)
+                | (long) (lastMove & MOVE_MASK) << LAST_MOVE_SHIFT
+                | (long) Math.min(halfmoveClock, CLOCK_MASK) << CLOCK_SHIFT;
+    }
+
+    static long withMove(long record, int move) {
+        return record & ~(long) MOVE_MASK | move & MOVE_MASK;
+    }
+
+    static long withPromotion(long record, int pawnMoveCount) {
+        return record | PROMOTION | (long) (pawnMoveCount & 7) << PAWN_MOVES_SHIFT;
+    }
+
+    static boolean is(long record, long flag) {
+        return (record & flag) != 0;
+    }
+
+    static int getMove(long record) {
+        return (int) record & MOVE_MASK;
+    }
+
+    static int getPawnMoveCount(long record) {
+        return (int) (record >>> PAWN_MOVES_SHIFT) & 7;
+    }
+
+    static int getCastlingRights(long record) {
+        return (int) (record >>> CASTLING_SHIFT) & 0xF;
+    }
+
+    // -1 when there was none
+    static int getEnPassantSquare(long record) {
+        return ((int) (record >>> EN_PASSANT_SHIFT) & 0x7F) - 1;
+    }
+
+    static int getLastMove(long record) {
+        return (int) (record >>> LAST_MOVE_SHIFT) & MOVE_MASK;
+    }
+
+    static int getHalfmoveClock(long record) {
+        return (int) (record >>> CLOCK_SHIFT) & CLOCK_MASK;
+    }
+}
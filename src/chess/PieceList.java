@@ -0,0 +1,27 @@
+package chess;
+
+// direct references to both kings; the board's bitboards answer every other question about where the pieces are
+class PieceList {
+
+    private ChessPiece[] kings;
+
+    PieceList() {
+        this.kings = new ChessPiece[Color.values().length];
+    }
+
+    void add(ChessPiece piece) {
+        if (piece.getType() == PieceType.KING) {
+            this.kings[piece.getColor().ordinal()] = piece;
+        }
+    }
+
+    void remove(ChessPiece piece) {
+        if (piece.getType() == PieceType.KING) {
+            this.kings[piece.getColor().ordinal()] = null;
+        }
+    }
+
+    ChessPiece getKing(Color color) {
+        return this.kings[color.ordinal()];
+    }
+}
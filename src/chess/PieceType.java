@@ -0,0 +1,20 @@
+package chess;
+
+public enum PieceType {
+    PAWN('P'),
+    KNIGHT('N'),
+    BISHOP('B'),
+    ROOK('R'),
+    QUEEN('Q'),
+    KING('K');
+
+    private char letter;
+
+    PieceType(char letter) {
+        this.letter = letter;
+    }
+
+    public char getLetter() {
+        return letter;
+    }
+}
@@ -0,0 +1,110 @@
+package chess;
+
+// an immutable copy of a published match position; it never changes after construction, so spectators on any thread
+// can read it without locks while the writer keeps playing
+public final class PositionSnapshot {
+
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final Color[] COLORS = Color.values();
+
+    private final long version;
+    private final byte[] squares;
+    private final int turn;
+    private final Color currentPlayer;
+    private final boolean check;
+    private final boolean checkmate;
+    private final DrawType draw;
+    private final int halfmoveClock;
+    private final int lastMove;
+    private final long zobristKey;
+
+    PositionSnapshot(long version, ChessBoard board, int turn, Color currentPlayer, boolean check, boolean checkmate,
+                     DrawType draw, int halfmoveClock, int lastMove, long zobristKey) {
+        this.version = version;
+        this.squares = new byte[ChessBoard.SIZE * ChessBoard.SIZE];
+        for (int square = 0; square < this.squares.length; square++) {
+            ChessPiece piece = board.piece(square);
+            // 0 is an empty square, otherwise type + 1 with the color above it
+            if (piece != null) {
+                this.squares[square] = (byte) (piece.getColor().ordinal() << 3 | piece.getType().ordinal() + 1);
+            }
+        }
+        this.turn = turn;
+        this.currentPlayer = currentPlayer;
+        this.check = check;
+        this.checkmate = checkmate;
+        this.draw = draw;
+        this.halfmoveClock = halfmoveClock;
+        this.lastMove = lastMove;
+        this.zobristKey = zobristKey;
+    }
+
+    // grows by one with every published position of the match
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public Color getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public boolean isCheck() {
+        return check;
+    }
+
+    public boolean isCheckmate() {
+        return checkmate;
+    }
+
+    public boolean isDraw() {
+        return draw != null;
+    }
+
+    public DrawType getDraw() {
+        return draw;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    // Move.NONE before the first move
+    public int getLastMove() {
+        return lastMove;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public boolean isEmpty(int square) {
+        return this.squares[square] == 0;
+    }
+
+    public PieceType getType(int square) {
+        return this.isEmpty(square) ? null : TYPES[(this.squares[square] & 7) - 1];
+    }
+
+    public Color getColor(int square) {
+        return this.isEmpty(square) ? null : COLORS[this.squares[square] >> 3];
+    }
+
+    // one line per row from rank 8 down, white in upper case, black in lower case and '-' for empty squares
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < ChessBoard.SIZE; row++) {
+            for (int column = 0; column < ChessBoard.SIZE; column++) {
+                int square = ChessBoard.square(row, column);
+                char letter = this.isEmpty(square) ? '-' : this.getType(square).getLetter();
+                sb.append(this.getColor(square) == Color.BLACK ? Character.toLowerCase(letter) : letter);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package chess;
+
+// resolves the capture sequence on one square from the attack sets alone, without making any move;
+// pins are ignored, as usual for a static exchange
+final class StaticExchange {
+
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 20000};
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private StaticExchange() {
+    }
+
+    static int value(PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    // material won by the side making the move if both sides then keep recapturing with their least valuable piece
+    // while it pays off; a quiet move scores whatever it loses when the piece is taken on its target square.
+    // gain is scratch space of at least 32 entries, one per possible capture
+    static int evaluate(ChessBoard board, int move, int[] gain) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        ChessPiece piece = board.piece(from);
+        Color side = piece.getColor();
+        long occupied = board.getOccupied() ^ ChessBoard.bit(from);
+
+        gain[0] = 0;
+        ChessPiece victim = board.piece(to);
+        if (victim != null) {
+            gain[0] = value(victim.getType());
+        } else if (piece.getType() == PieceType.PAWN && ChessBoard.column(from) != ChessBoard.column(to)) {
+            // en passant: the captured pawn stands beside the moving one
+            gain[0] = value(PieceType.PAWN);
+            occupied ^= ChessBoard.bit(ChessBoard.square(ChessBoard.row(from), ChessBoard.column(to)));
+        }
+        int onSquare = value(piece.getType());
+        PieceType promotion = Move.getPromotion(move);
+        if (promotion != null) {
+            gain[0] += value(promotion) - value(PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+
+        long bishops = board.getPieces(PieceType.BISHOP) | board.getPieces(PieceType.QUEEN);
+        long rooks = board.getPieces(PieceType.ROOK) | board.getPieces(PieceType.QUEEN);
+        long attackers = board.attackersTo(to, occupied) & occupied;
+        int depth = 0;
+        while (true) {
+            side = side == Color.WHITE ? Color.BLACK : Color.WHITE;
+            long own = attackers & board.getOccupied(side);
+            if (own == 0) {
+                break;
+            }
+            PieceType type = null;
+            long candidates = 0L;
+            for (PieceType candidate : TYPES) {
+                candidates = own & board.getPieces(side, candidate);
+                if (candidates != 0) {
+                    type = candidate;
+                    break;
+                }
+            }
+            // the king may only take last
+            if (type == PieceType.KING && (attackers & ~own) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            occupied ^= Long.lowestOneBit(candidates);
+            // pieces behind the capturer join in
+            attackers |= (Attacks.bishopAttacks(to, occupied) & bishops) | (Attacks.rookAttacks(to, occupied) & rooks);
+            attackers &= occupied;
+            onSquare = value(type);
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+}
@@ -0,0 +1,59 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+public final class Zobrist {
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final long[][][] PIECES = new long[Color.values().length][PieceType.values().length][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5A0B_2157_C0FF_EE00L);
+        for (long[][] color : PIECES) {
+            for (long[] type : color) {
+                for (int square = 0; square < 64; square++) {
+                    type[square] = random.nextLong();
+                }
+            }
+        }
+        // one key per right, so a rights mask hashes to the XOR of its rights
+        long[] rights = {random.nextLong(), random.nextLong(), random.nextLong(), random.nextLong()};
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int right = 0; right < rights.length; right++) {
+                if ((mask & (1 << right)) != 0) {
+                    CASTLING[mask] ^= rights[right];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT.length; file++) {
+            EN_PASSANT[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(Color color, PieceType type, int square) {
+        return PIECES[color.ordinal()][type.ordinal()][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int file) {
+        return file < 0 ? 0L : EN_PASSANT[file];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
@@ -0,0 +1,234 @@
+package chess.engine;
+
+import chess.Color;
+import chess.PieceType;
+
+import java.util.Arrays;
+
+// names, orders and indexes the positions of one endgame table. A piece is packed in an int as
+// color << 9 | type << 6 | square; a table keeps its pieces with the white king first, then the other white pieces
+// from the queen down to the pawns, then the black king and the black pieces in the same order. White is always the
+// stronger side, a position with black ahead is looked up with the colors swapped and the board mirrored
+final class Material {
+
+    static final int MAX_PIECES = 4;
+
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final int KING = PieceType.KING.ordinal();
+    private static final int CODES = 1 + 2 * KING;
+
+    static final int SIGNATURES = CODES * CODES;
+
+    private final int[] slots;
+
+    private Material(int[] slots) {
+        this.slots = slots;
+    }
+
+    // e.g. KQKR or KPK, the stronger side first
+    static Material parse(String name) {
+        int second = name.indexOf('K', 1);
+        if (!name.startsWith("K") || second < 0 || name.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("An endgame is written like KQKR, with at most " + MAX_PIECES + " pieces");
+        }
+        int[] pieces = new int[name.length()];
+        for (int i = 0; i < name.length(); i++) {
+            PieceType type = type(name.charAt(i));
+            if (type == null || type == PieceType.KING && i != 0 && i != second) {
+                throw new IllegalArgumentException("Unknown piece '" + name.charAt(i) + "' in " + name);
+            }
+            pieces[i] = piece(i < second ? Color.WHITE : Color.BLACK, type, 0);
+        }
+        return of(pieces, pieces.length);
+    }
+
+    // the material of any pieces, in any order and with any colors
+    static Material of(int[] pieces, int count) {
+        int[][] sides = sides(pieces, count);
+        int[] white = sides[0];
+        int[] black = sides[1];
+        if (compare(white, black) < 0) {
+            white = flip(sides[1]);
+            black = flip(sides[0]);
+        }
+        int[] slots = new int[count];
+        System.arraycopy(white, 0, slots, 0, white.length);
+        System.arraycopy(black, 0, slots, white.length, black.length);
+        return new Material(slots);
+    }
+
+    // true when the pieces have to be mirrored and their colors swapped to fit their table
+    static boolean isFlipped(int[] pieces, int count) {
+        int[][] sides = sides(pieces, count);
+        return compare(sides[0], sides[1]) < 0;
+    }
+
+    // a small number for the material of the pieces as they stand, so the tables can be kept in an array of SIGNATURES:
+    // besides the two kings there are at most two pieces, each counted as 1 + color * 5 + type
+    static int signature(int[] pieces, int count) {
+        int first = 0;
+        int second = 0;
+        for (int i = 0; i < count; i++) {
+            int type = pieces[i] >>> 6 & 7;
+            if (type == KING) {
+                continue;
+            }
+            int code = 1 + (pieces[i] >>> 9) * KING + type;
+            if (first == 0) {
+                first = code;
+            } else {
+                second = code;
+            }
+        }
+        return Math.min(first, second) * CODES + Math.max(first, second);
+    }
+
+    int size() {
+        return this.slots.length;
+    }
+
+    // the number of entries: the side to move times a square for every piece
+    int entries() {
+        return 2 << (6 * this.slots.length);
+    }
+
+    Color color(int slot) {
+        return colorOf(this.slots[slot]);
+    }
+
+    PieceType type(int slot) {
+        return typeOf(this.slots[slot]);
+    }
+
+    int index(Color sideToMove, int[] squares) {
+        int index = sideToMove == Color.WHITE ? 0 : 1;
+        for (int i = 0; i < this.slots.length; i++) {
+            index = index << 6 | squares[i];
+        }
+        return index;
+    }
+
+    // fills squares and returns the side to move
+    Color decode(int index, int[] squares) {
+        for (int i = this.slots.length - 1; i >= 0; i--) {
+            squares[i] = index & 0x3F;
+            index >>>= 6;
+        }
+        return index == 0 ? Color.WHITE : Color.BLACK;
+    }
+
+    // the index of pieces with this material, matched to the slots by color and type; pieces is reordered
+    int index(Color sideToMove, int[] pieces, boolean flipped, int[] squares) {
+        Color side = flipped ? opposite(sideToMove) : sideToMove;
+        long used = 0L;
+        for (int i = 0; i < this.slots.length; i++) {
+            for (int j = 0; j < this.slots.length; j++) {
+                int piece = flipped ? flip(pieces[j]) : pieces[j];
+                if ((used & 1L << j) == 0 && (piece & ~0x3F) == this.slots[i]) {
+                    squares[i] = piece & 0x3F;
+                    used |= 1L << j;
+                    break;
+                }
+            }
+        }
+        return this.index(side, squares);
+    }
+
+    String name() {
+        StringBuilder sb = new StringBuilder();
+        for (int slot : this.slots) {
+            sb.append(typeOf(slot).getLetter());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Material && Arrays.equals(this.slots, ((Material) o).slots);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.slots);
+    }
+
+    static int piece(Color color, PieceType type, int square) {
+        return color.ordinal() << 9 | type.ordinal() << 6 | square;
+    }
+
+    static Color colorOf(int piece) {
+        return (piece >>> 9) == 0 ? Color.BLACK : Color.WHITE;
+    }
+
+    static PieceType typeOf(int piece) {
+        return TYPES[piece >>> 6 & 7];
+    }
+
+    static int squareOf(int piece) {
+        return piece & 0x3F;
+    }
+
+    // the same piece for the other color on the mirrored square
+    static int flip(int piece) {
+        return piece(opposite(colorOf(piece)), typeOf(piece), squareOf(piece) ^ 56);
+    }
+
+    static Color opposite(Color color) {
+        return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+    }
+
+    private static int[] flip(int[] pieces) {
+        int[] flipped = new int[pieces.length];
+        for (int i = 0; i < pieces.length; i++) {
+            flipped[i] = flip(pieces[i]) & ~0x3F;
+        }
+        return flipped;
+    }
+
+    // the white and the black pieces without their squares, each ordered as in a table
+    private static int[][] sides(int[] pieces, int count) {
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = pieces[i] & ~0x3F;
+        }
+        Arrays.sort(sorted);
+        int blackEnd = 0;
+        while (blackEnd < count && colorOf(sorted[blackEnd]) == Color.BLACK) {
+            blackEnd++;
+        }
+        return new int[][]{descending(Arrays.copyOfRange(sorted, blackEnd, count)), descending(Arrays.copyOfRange(sorted, 0, blackEnd))};
+    }
+
+    // the king first, then by falling value, which is the reverse of the type order
+    private static int[] descending(int[] pieces) {
+        for (int i = 0, j = pieces.length - 1; i < j; i++, j--) {
+            int swap = pieces[i];
+            pieces[i] = pieces[j];
+            pieces[j] = swap;
+        }
+        return pieces;
+    }
+
+    // more pieces is stronger, then the most valuable piece that differs
+    private static int compare(int[] a, int[] b) {
+        if (a.length != b.length) {
+            return a.length - b.length;
+        }
+        for (int i = 0; i < a.length; i++) {
+            int diff = typeOf(a[i]).ordinal() - typeOf(b[i]).ordinal();
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static PieceType type(char letter) {
+        for (PieceType type : TYPES) {
+            if (type.getLetter() == letter) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Move;
+import chess.PieceType;
+
+// orders generated moves for the search in stages: the hash move before anything is scored, then captures and queen
+// promotions by MVV-LVA, two killers per ply, quiet moves by their butterfly history, and last the captures that lose
+// material by exchange. Each stage is scored only once the one before it runs out, and a capture's exchange is only
+// resolved when it is about to be picked, so a cutoff on the hash move or a good capture skips the rest of the work
+final class MoveOrdering {
+
+    private static final int HASH_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 28;
+    private static final int FIRST_KILLER = 1 << 27;
+    private static final int SECOND_KILLER = FIRST_KILLER - 1;
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int LOSING_CAPTURE = -HISTORY_LIMIT - 64;
+    private static final int UNDERPROMOTION = LOSING_CAPTURE - 1;
+    private static final int UNSCORED = Integer.MIN_VALUE;
+
+    private static final int HASH_STAGE = 0;
+    private static final int SCORE_CAPTURES_STAGE = 1;
+    private static final int CAPTURES_STAGE = 2;
+    private static final int SCORE_QUIETS_STAGE = 3;
+    private static final int QUIETS_STAGE = 4;
+
+    private int thread;
+    private int[][] killers;
+    private int[][][] history;
+    private int[] stages;
+
+    // lazy SMP helpers, thread > 0, add a per-thread jitter to the quiet moves at the root so they explore different
+    // subtrees first
+    MoveOrdering(int thread) {
+        this.thread = thread;
+        this.killers = new int[Search.MAX_PLY][2];
+        this.history = new int[Color.values().length][64][64];
+        this.stages = new int[Search.MAX_PLY];
+    }
+
+    // killers belong to the previous search tree; history is kept but weighed down
+    void newSearch() {
+        for (int[] slots : this.killers) {
+            slots[0] = Move.NONE;
+            slots[1] = Move.NONE;
+        }
+        for (int[][] from : this.history) {
+            for (int[] to : from) {
+                for (int i = 0; i < to.length; i++) {
+                    to[i] /= 8;
+                }
+            }
+        }
+    }
+
+    // the hash move, when it is one of the moves, is moved to the front without scoring anything
+    void start(int[] moves, int count, int hashMove, int ply) {
+        this.stages[ply] = SCORE_CAPTURES_STAGE;
+        if (hashMove == Move.NONE) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == hashMove) {
+                swap(moves, 0, i);
+                this.stages[ply] = HASH_STAGE;
+                return;
+            }
+        }
+    }
+
+    // the move to search at index, swapped there from moves[index..count); scores[index] then holds its score
+    int next(ChessMatch chessMatch, int[] moves, int[] scores, int index, int count, int ply) {
+        if (this.stages[ply] == HASH_STAGE) {
+            this.stages[ply] = SCORE_CAPTURES_STAGE;
+            scores[index] = HASH_MOVE;
+            return moves[index];
+        }
+        if (this.stages[ply] == SCORE_CAPTURES_STAGE) {
+            scoreCaptures(chessMatch, moves, scores, index, count);
+            this.stages[ply] = CAPTURES_STAGE;
+        }
+        if (this.stages[ply] == CAPTURES_STAGE) {
+            while (true) {
+                int best = best(scores, index, count);
+                if (best < 0 || scores[best] < CAPTURE) {
+                    break;
+                }
+                if (!isLosing(chessMatch, moves[best])) {
+                    return pick(moves, scores, index, best);
+                }
+                scores[best] += LOSING_CAPTURE - CAPTURE;
+            }
+            this.stages[ply] = SCORE_QUIETS_STAGE;
+        }
+        if (this.stages[ply] == SCORE_QUIETS_STAGE) {
+            this.scoreQuiets(chessMatch, moves, scores, index, count, ply);
+            this.stages[ply] = QUIETS_STAGE;
+        }
+        return pick(moves, scores, index, best(scores, index, count));
+    }
+
+    // true for a capture the ordering found to lose material by exchange
+    static boolean isLosingCapture(int score) {
+        return score >= LOSING_CAPTURE && score < -HISTORY_LIMIT;
+    }
+
+    // captures and queen promotions by MVV-LVA, the other moves are left for scoreQuiets
+    private static void scoreCaptures(ChessMatch chessMatch, int[] moves, int[] scores, int index, int count) {
+        for (int i = index; i < count; i++) {
+            int move = moves[i];
+            if (chessMatch.isCapture(move)) {
+                scores[i] = CAPTURE + mvvLva(chessMatch, move);
+            } else if (Move.getPromotion(move) == PieceType.QUEEN) {
+                scores[i] = CAPTURE + PieceType.QUEEN.ordinal() * 8;
+            } else {
+                scores[i] = UNSCORED;
+            }
+        }
+    }
+
+    private void scoreQuiets(ChessMatch chessMatch, int[] moves, int[] scores, int index, int count, int ply) {
+        int[] slots = this.killers[ply];
+        int[][] table = this.history[chessMatch.getCurrentPlayer().ordinal()];
+        for (int i = index; i < count; i++) {
+            if (scores[i] != UNSCORED) {
+                continue;
+            }
+            int move = moves[i];
+            if (Move.getPromotion(move) != null) {
+                scores[i] = UNDERPROMOTION;
+            } else if (move == slots[0]) {
+                scores[i] = FIRST_KILLER;
+            } else if (move == slots[1]) {
+                scores[i] = SECOND_KILLER;
+            } else {
+                scores[i] = table[Move.getFrom(move)][Move.getTo(move)];
+                if (ply == 0 && this.thread > 0) {
+                    int hash = (move + 1) * 0x9E3779B1 ^ this.thread * 0x85EBCA6B;
+                    scores[i] += (hash >>> 16) & 0x3FF;
+                }
+            }
+        }
+    }
+
+    // the highest score in scores[index..count), or -1 when the range is empty
+    private static int best(int[] scores, int index, int count) {
+        int best = index < count ? index : -1;
+        for (int i = index + 1; i < count; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int pick(int[] moves, int[] scores, int index, int best) {
+        swap(moves, index, best);
+        swap(scores, index, best);
+        return moves[index];
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    // a quiet move caused a cutoff: it becomes the first killer, gains history, and the quiet moves tried before it lose some
+    void cutoff(ChessMatch chessMatch, int move, int depth, int ply, int[] moves, int tried) {
+        int[] slots = this.killers[ply];
+        if (slots[0] != move) {
+            slots[1] = slots[0];
+            slots[0] = move;
+        }
+        int[][] table = this.history[chessMatch.getCurrentPlayer().ordinal()];
+        int bonus = depth * depth;
+        this.addHistory(table, move, bonus);
+        for (int i = 0; i < tried; i++) {
+            if (isQuiet(chessMatch, moves[i])) {
+                this.addHistory(table, moves[i], -bonus);
+            }
+        }
+    }
+
+    private void addHistory(int[][] table, int move, int bonus) {
+        int[] to = table[Move.getFrom(move)];
+        int value = to[Move.getTo(move)] + bonus;
+        to[Move.getTo(move)] = Math.max(-HISTORY_LIMIT, Math.min(HISTORY_LIMIT, value));
+    }
+
+    static boolean isQuiet(ChessMatch chessMatch, int move) {
+        return Move.getPromotion(move) == null && !chessMatch.isCapture(move);
+    }
+
+    // taking a piece at least as valuable as the capturer can not lose material, so the exchange is only resolved otherwise
+    private static boolean isLosing(ChessMatch chessMatch, int move) {
+        ChessPiece victim = chessMatch.getPiece(Move.getTo(move));
+        if (victim == null || victim.getType().ordinal() >= chessMatch.getPiece(Move.getFrom(move)).getType().ordinal()) {
+            return false;
+        }
+        return chessMatch.staticExchange(move) < 0;
+    }
+
+    // most valuable victim first, least valuable attacker breaking ties
+    private static int mvvLva(ChessMatch chessMatch, int move) {
+        ChessPiece victim = chessMatch.getPiece(Move.getTo(move));
+        int victimValue = victim == null ? PieceType.PAWN.ordinal() : victim.getType().ordinal();
+        int attackerValue = chessMatch.getPiece(Move.getFrom(move)).getType().ordinal();
+        return victimValue * 8 + (PieceType.KING.ordinal() - attackerValue);
+    }
+}
@@ -0,0 +1,141 @@
+package chess.engine;
+
+import chess.ChessMatch;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// lazy SMP: every thread searches its own copy of the position and they only share the transposition table. The
+// helper threads are started once and kept for every search; close() lets them go
+public class ParallelSearch implements Closeable {
+
+    private int threads;
+    private TranspositionTable table;
+    private ExecutorService helpers;
+    private Tablebase tablebase;
+    private volatile Search[] searches;
+    private volatile boolean stopped;
+    private long nodes;
+
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is needed");
+        }
+        this.threads = threads;
+        this.table = table;
+        if (threads > 1) {
+            this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public void stop() {
+        this.stopped = true;
+        Search[] current = this.searches;
+        if (current != null) {
+            for (Search search : current) {
+                search.stop();
+            }
+        }
+    }
+
+    // the calling thread is the main thread; helpers run until it finishes and the deepest completed iteration wins
+    public SearchResult search(ChessMatch chessMatch, SearchLimits limits) {
+        long startTime = System.nanoTime();
+        Search[] current = new Search[this.threads];
+        SearchResult[] results = new SearchResult[this.threads];
+        for (int i = 0; i < this.threads; i++) {
+            current[i] = new Search(new ChessMatch(chessMatch), this.table, i);
+            current[i].setTablebase(this.tablebase);
+        }
+        this.searches = current;
+        if (this.stopped) {
+            // stop() may have missed the searches created above
+            this.stop();
+        }
+
+        List<Future<SearchResult>> futures = new ArrayList<>();
+        for (int i = 1; i < this.threads; i++) {
+            Search helper = current[i];
+            futures.add(this.helpers.submit(() -> helper.search(limits)));
+        }
+
+        try {
+            results[0] = current[0].search(limits);
+        } finally {
+            for (int i = 1; i < this.threads; i++) {
+                current[i].stop();
+            }
+            for (int i = 1; i < this.threads; i++) {
+                results[i] = this.join(futures.get(i - 1));
+            }
+            this.searches = null;
+            this.stopped = false;
+        }
+
+        this.nodes = 0;
+        for (Search search : current) {
+            this.nodes += search.getNodes();
+        }
+        SearchResult best = results[0];
+        if (best == null) {
+            return null;
+        }
+        for (int i = 1; i < this.threads; i++) {
+            if (results[i] != null && results[i].getDepth() > best.getDepth()) {
+                best = results[i];
+            }
+        }
+        return new SearchResult(best.getPrincipalVariation(), best.getScore(), best.getDepth(), this.nodes, (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    @Override
+    public void close() {
+        if (this.helpers != null) {
+            this.helpers.shutdown();
+        }
+    }
+
+    // helpers are already told to stop, so waiting for them is short; an interrupt is kept for the caller
+    private SearchResult join(Future<SearchResult> helper) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return helper.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
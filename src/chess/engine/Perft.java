@@ -0,0 +1,69 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Move;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Perft {
+
+    private ChessMatch chessMatch;
+    private int[][] moves;
+
+    public Perft(ChessMatch chessMatch) {
+        this.chessMatch = chessMatch;
+        this.moves = new int[0][];
+    }
+
+    // 1 at depth 0, the position itself
+    public long perft(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Perft needs a depth of at least 0");
+        }
+        this.ensureDepth(depth);
+        return this.count(depth);
+    }
+
+    // node count below every root move, in generation order
+    public Map<String, Long> divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+        this.ensureDepth(depth);
+        Map<String, Long> result = new LinkedHashMap<>();
+        int[] rootMoves = this.moves[depth];
+        int count = this.chessMatch.legalMoves(rootMoves);
+        for (int i = 0; i < count; i++) {
+            this.chessMatch.makeMove(rootMoves[i]);
+            result.put(Move.toString(rootMoves[i]), this.count(depth - 1));
+            this.chessMatch.undoMove();
+        }
+        return result;
+    }
+
+    private long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int[] buffer = this.moves[depth];
+        int count = this.chessMatch.legalMoves(buffer);
+        // bulk counting: the legal moves of the last ply are the leaves
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            this.chessMatch.makeMove(buffer[i]);
+            nodes += this.count(depth - 1);
+            this.chessMatch.undoMove();
+        }
+        return nodes;
+    }
+
+    private void ensureDepth(int depth) {
+        if (this.moves.length <= depth) {
+            this.moves = new int[depth + 1][ChessMatch.MAX_MOVES];
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.Move;
+
+import java.util.Arrays;
+
+public class Search {
+
+    public static final int MAX_PLY = 64;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    // scores beyond this are mates; tablebase mates can be much longer than the search is deep
+    public static final int MATE_BOUND = MATE - 256;
+
+    private static final int CHECK_INTERVAL = 1023;
+
+    // helper threads of a parallel search skip some depths so they are not all searching the same iteration
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private ChessMatch chessMatch;
+    private TranspositionTable table;
+    private Tablebase tablebase;
+    private int[] tablebasePieces;
+    private int[] tablebaseSquares;
+    private int thread;
+    private int[][] moves;
+    private int[][] scores;
+    private MoveOrdering ordering;
+    private int[][] principalVariation;
+    private int[] principalVariationLength;
+
+    private long nodes;
+    private long nodeLimit;
+    private long startTime;
+    private long deadline;
+    private boolean limitsActive;
+    private volatile boolean stopped;
+
+    public Search(ChessMatch chessMatch, TranspositionTable table) {
+        this(chessMatch, table, 0);
+    }
+
+    // thread 0 is the main thread; any other number makes this a helper of a parallel search
+    Search(ChessMatch chessMatch, TranspositionTable table, int thread) {
+        this.chessMatch = chessMatch;
+        this.table = table;
+        this.thread = thread;
+        this.moves = new int[MAX_PLY][ChessMatch.MAX_MOVES];
+        this.scores = new int[MAX_PLY][ChessMatch.MAX_MOVES];
+        this.ordering = new MoveOrdering(thread);
+        this.principalVariation = new int[MAX_PLY][MAX_PLY];
+        this.principalVariationLength = new int[MAX_PLY];
+        this.tablebasePieces = new int[Material.MAX_PIECES];
+        this.tablebaseSquares = new int[Material.MAX_PIECES];
+    }
+
+    public void stop() {
+        this.stopped = true;
+    }
+
+    // positions with few enough pieces are then scored from the tables instead of being searched
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    // iterative deepening; returns the deepest fully searched iteration, or null when there is no legal move.
+    // a stop() that arrives before the search starts is honoured, the flag is cleared when the search returns
+    public SearchResult search(SearchLimits limits) {
+        this.startTime = System.nanoTime();
+        this.deadline = limits.getTimeMillis() == Long.MAX_VALUE ? Long.MAX_VALUE : this.startTime + limits.getTimeMillis() * 1_000_000;
+        this.nodeLimit = limits.getNodes();
+        this.nodes = 0;
+        this.limitsActive = false;
+        if (this.thread == 0) {
+            this.table.newSearch();
+        }
+        this.ordering.newSearch();
+
+        try {
+            return this.iterate(limits);
+        } finally {
+            this.stopped = false;
+        }
+    }
+
+    private SearchResult iterate(SearchLimits limits) {
+        if (this.chessMatch.legalMoves(this.moves[0]) == 0) {
+            return null;
+        }
+
+        SearchResult result = null;
+        for (int depth = 1; depth <= limits.getDepth(); depth++) {
+            if (this.skipDepth(depth)) {
+                continue;
+            }
+            int score = this.alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (this.stopped) {
+                break;
+            }
+            int[] line = Arrays.copyOf(this.principalVariation[0], this.principalVariationLength[0]);
+            result = new SearchResult(line, score, depth, this.nodes, (System.nanoTime() - this.startTime) / 1_000_000);
+            // limits only apply once a first move is known
+            this.limitsActive = true;
+            if (result.isMate() || this.outOfTime(2)) {
+                break;
+            }
+        }
+        if (result == null) {
+            // stopped from outside before the first iteration finished
+            result = new SearchResult(new int[]{this.moves[0][0]}, 0, 0, this.nodes, (System.nanoTime() - this.startTime) / 1_000_000);
+        }
+        return result;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        this.principalVariationLength[ply] = ply;
+        this.nodes++;
+        if ((this.nodes & CHECK_INTERVAL) == 0) {
+            this.checkLimits();
+        }
+        if (this.stopped) {
+            return 0;
+        }
+
+        if (ply > 0 && this.isDraw()) {
+            return 0;
+        }
+        if (ply > 0 && this.tablebase != null) {
+            int score = this.tablebase.probe(this.chessMatch, this.tablebasePieces, this.tablebaseSquares);
+            if (score != Tablebase.UNKNOWN) {
+                return fromTable(score, ply);
+            }
+        }
+        if (ply >= MAX_PLY - 1) {
+            return this.chessMatch.evaluate();
+        }
+        if (depth <= 0) {
+            // the node was already counted here
+            this.nodes--;
+            return this.quiescence(ply, alpha, beta);
+        }
+        // a cutoff from the table needs no moves, so they are only generated once the search goes on; mates and
+        // stalemates are never stored, so a hit is never a position without moves
+        long key = this.chessMatch.getZobristKey();
+        int hashMove = Move.NONE;
+        long entry = this.table.probe(key);
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || bound == TranspositionTable.BOUND_LOWER && score >= beta
+                        || bound == TranspositionTable.BOUND_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+        int[] list = this.moves[ply];
+        int count = this.chessMatch.legalMoves(list);
+        if (count == 0) {
+            return this.chessMatch.isCheck() ? -MATE + ply : 0;
+        }
+
+        int[] scores = this.scores[ply];
+        this.ordering.start(list, count, hashMove, ply);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = this.ordering.next(this.chessMatch, list, scores, i, count, ply);
+            this.chessMatch.makeMove(move);
+            int score = -this.alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            this.chessMatch.undoMove();
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    this.updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (MoveOrdering.isQuiet(this.chessMatch, move)) {
+                            this.ordering.cutoff(this.chessMatch, move, depth, ply, list, i);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER : best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        this.table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    // captures only until the position is quiet, so the static evaluation is never taken in the middle of an exchange;
+    // in check every evasion is searched instead, which also finds mates at the horizon
+    private int quiescence(int ply, int alpha, int beta) {
+        this.principalVariationLength[ply] = ply;
+        this.nodes++;
+        if ((this.nodes & CHECK_INTERVAL) == 0) {
+            this.checkLimits();
+        }
+        if (this.stopped) {
+            return 0;
+        }
+
+        boolean inCheck = this.chessMatch.isCheck();
+        if (ply >= MAX_PLY - 1) {
+            return inCheck ? 0 : this.chessMatch.evaluate();
+        }
+        int[] list = this.moves[ply];
+        int count;
+        int best;
+        if (inCheck) {
+            count = this.chessMatch.legalMoves(list);
+            if (count == 0) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            // stand pat: the side to move does not have to capture
+            best = this.chessMatch.evaluate();
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+            count = this.chessMatch.legalCaptures(list);
+        }
+
+        int[] scores = this.scores[ply];
+        this.ordering.start(list, count, Move.NONE, ply);
+        for (int i = 0; i < count; i++) {
+            int move = this.ordering.next(this.chessMatch, list, scores, i, count, ply);
+            // captures that lose material by exchange can not raise the stand pat score; the ordering has resolved the
+            // exchange of every capture it could lose, which leaves the promotions
+            if (!inCheck && (MoveOrdering.isLosingCapture(scores[i])
+                    || !this.chessMatch.isCapture(move) && this.chessMatch.staticExchange(move) < 0)) {
+                continue;
+            }
+            this.chessMatch.makeMove(move);
+            int score = -this.quiescence(ply + 1, -beta, -alpha);
+            this.chessMatch.undoMove();
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // a single repetition is enough inside the tree: whoever steered into it can repeat again
+    private boolean isDraw() {
+        return this.chessMatch.getHalfmoveClock() >= ChessMatch.FIFTY_MOVE_LIMIT
+                || this.chessMatch.isRepetition()
+                || this.chessMatch.isInsufficientMaterial();
+    }
+
+    private boolean skipDepth(int depth) {
+        if (this.thread == 0 || depth == 1) {
+            return false;
+        }
+        int i = (this.thread - 1) % SKIP_SIZE.length;
+        return (depth + SKIP_PHASE[i]) / SKIP_SIZE[i] % 2 != 0;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] line = this.principalVariation[ply];
+        line[ply] = move;
+        int length = this.principalVariationLength[ply + 1];
+        System.arraycopy(this.principalVariation[ply + 1], ply + 1, line, ply + 1, length - ply - 1);
+        this.principalVariationLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private void checkLimits() {
+        if (this.limitsActive && (this.nodes >= this.nodeLimit || this.outOfTime(1))) {
+            this.stopped = true;
+        }
+    }
+
+    // true once more than 1/fraction of the time budget is used
+    private boolean outOfTime(int fraction) {
+        if (this.deadline == Long.MAX_VALUE) {
+            return false;
+        }
+        long now = System.nanoTime();
+        return now - this.startTime >= (this.deadline - this.startTime) / fraction;
+    }
+
+    // mate scores are stored relative to the node so they stay valid at any ply
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+}
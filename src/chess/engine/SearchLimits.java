@@ -0,0 +1,41 @@
+package chess.engine;
+
+public class SearchLimits {
+
+    private int depth;
+    private long nodes;
+    private long timeMillis;
+
+    public SearchLimits(int depth, long nodes, long timeMillis) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The search depth should be at least 1");
+        }
+        this.depth = Math.min(depth, Search.MAX_PLY - 1);
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(Search.MAX_PLY - 1, Long.MAX_VALUE, timeMillis);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY - 1, nodes, Long.MAX_VALUE);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+}
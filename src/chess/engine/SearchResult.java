@@ -0,0 +1,62 @@
+package chess.engine;
+
+import chess.Move;
+
+public class SearchResult {
+
+    private int[] principalVariation;
+    private int score;
+    private int depth;
+    private long nodes;
+    private long timeMillis;
+
+    public SearchResult(int[] principalVariation, int score, int depth, long nodes, long timeMillis) {
+        this.principalVariation = principalVariation;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getBestMove() {
+        return this.principalVariation.length == 0 ? Move.NONE : this.principalVariation[0];
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public boolean isMate() {
+        return Math.abs(this.score) >= Search.MATE_BOUND;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("depth ").append(this.depth)
+                .append(" score ").append(this.score)
+                .append(" nodes ").append(this.nodes)
+                .append(" time ").append(this.timeMillis)
+                .append(" pv");
+        for (int move : this.principalVariation) {
+            sb.append(' ').append(Move.toString(move));
+        }
+        return sb.toString();
+    }
+}
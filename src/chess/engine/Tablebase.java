@@ -0,0 +1,159 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// exact scores for endgames of up to four pieces, probed from the tables of TablebaseGenerator through read-only
+// memory maps. A table file is a small header followed by one byte per position:
+//
+//   "CHTB" version:u8 pieces:u8 name:10 bytes   then   entry[2 * 64^pieces]
+//
+// an entry is 0 for a draw, n > 0 for a mate in n plies by the side to move, -(n + 1) for the side to move being
+// mated in n plies, and ILLEGAL for positions that can not occur. Tables are opened on first use; positions with
+// castling rights or an en passant capture are never probed, as the tables leave both out
+public class Tablebase implements Closeable {
+
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    static final byte[] MAGIC = {'C', 'H', 'T', 'B'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final byte ILLEGAL = (byte) 0x80;
+    static final String EXTENSION = ".tb";
+
+    private static final Table MISSING = new Table(null, null, false);
+
+    private Path directory;
+    // by Material.signature, null until first probed; a table is only ever replaced by itself, and its final fields
+    // make it safe to read without a lock
+    private Table[] tables;
+    private List<FileChannel> channels;
+
+    public Tablebase(Path directory) {
+        this.directory = directory;
+        this.tables = new Table[Material.SIGNATURES];
+        this.channels = new ArrayList<>();
+    }
+
+    // the score for the side to move as the search counts it: Search.MATE minus the plies to mate when it wins, the
+    // negative of that when it loses, 0 for a draw; UNKNOWN without a table
+    public int probe(ChessMatch chessMatch) {
+        return this.probe(chessMatch, new int[Material.MAX_PIECES], new int[Material.MAX_PIECES]);
+    }
+
+    // probe with scratch arrays of Material.MAX_PIECES the caller keeps, so a search probing every node allocates nothing
+    int probe(ChessMatch chessMatch, int[] pieces, int[] squares) {
+        long occupied = chessMatch.getOccupied();
+        int count = Long.bitCount(occupied);
+        if (count > Material.MAX_PIECES || chessMatch.getCastlingRights() != 0 || chessMatch.getEnPassantSquare() >= 0) {
+            return UNKNOWN;
+        }
+        for (int i = 0; i < count; i++) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            ChessPiece piece = chessMatch.getPiece(square);
+            pieces[i] = Material.piece(piece.getColor(), piece.getType(), square);
+            occupied &= occupied - 1;
+        }
+        int entry = this.entry(pieces, count, chessMatch.getCurrentPlayer() == Color.WHITE, squares);
+        if (entry == UNKNOWN || entry == ILLEGAL) {
+            return UNKNOWN;
+        }
+        if (entry > 0) {
+            return Search.MATE - entry;
+        }
+        return entry < 0 ? -Search.MATE - entry - 1 : 0;
+    }
+
+    // the raw entry of a position, or UNKNOWN when its table is not there; bare kings are always a draw. squares is
+    // scratch space for count entries
+    int entry(int[] pieces, int count, boolean whiteToMove, int[] squares) {
+        if (count <= 2) {
+            return 0;
+        }
+        int signature = Material.signature(pieces, count);
+        Table table = this.tables[signature];
+        if (table == null) {
+            table = this.open(pieces, count, signature);
+        }
+        if (table == MISSING) {
+            return UNKNOWN;
+        }
+        int index = table.material.index(whiteToMove ? Color.WHITE : Color.BLACK, pieces, table.flipped, squares);
+        return table.entries.get(HEADER_SIZE + index);
+    }
+
+    static Path file(Path directory, Material material) {
+        return directory.resolve(material.name() + EXTENSION);
+    }
+
+    private Table open(int[] pieces, int count, int signature) {
+        synchronized (this.channels) {
+            if (this.tables[signature] == null) {
+                this.tables[signature] = this.load(pieces, count);
+            }
+            return this.tables[signature];
+        }
+    }
+
+    private Table load(int[] pieces, int count) {
+        Material material = Material.of(pieces, count);
+        Path path = file(this.directory, material);
+        if (!Files.exists(path)) {
+            return MISSING;
+        }
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.channels.add(channel);
+            ByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (entries.get(i) != MAGIC[i]) {
+                    throw new IOException(path + " is not a tablebase file");
+                }
+            }
+            if (entries.get(4) != VERSION || entries.get(5) != material.size() || channel.size() != HEADER_SIZE + (long) material.entries()) {
+                throw new IOException(path + " does not hold a " + material.name() + " table of this version");
+            }
+            return new Table(material, entries, Material.isFlipped(pieces, count));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.channels) {
+            for (FileChannel channel : this.channels) {
+                channel.close();
+            }
+            this.channels.clear();
+            Arrays.fill(this.tables, null);
+        }
+    }
+
+    // one table as seen from one arrangement of colors
+    private static class Table {
+
+        private final Material material;
+        private final ByteBuffer entries;
+        private final boolean flipped;
+
+        Table(Material material, ByteBuffer entries, boolean flipped) {
+            this.material = material;
+            this.entries = entries;
+            this.flipped = flipped;
+        }
+    }
+}
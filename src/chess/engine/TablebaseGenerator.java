@@ -0,0 +1,634 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.Color;
+import chess.PieceType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// builds the tables Tablebase probes by retrograde analysis. The first pass looks at every index once: it marks the
+// positions that can not occur, the mates and stalemates, and whatever the captures and promotions lead to in the
+// smaller tables, which are generated first. Then the passes alternate by ply: positions one move before a loss in
+// p - 1 plies win in p, and positions one move before a win in p - 1 plies lose in p once every move they have is
+// known to lose. Moving backwards only needs the quiet moves, as a capture or a promotion always leaves the table.
+// Castling and en passant are left out
+public class TablebaseGenerator {
+
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+    private static final int CHUNKS_PER_THREAD = 8;
+
+    private Path directory;
+    private int threads;
+
+    public TablebaseGenerator(Path directory, int threads) {
+        this.directory = directory;
+        this.threads = threads;
+    }
+
+    // generates the table and every smaller one it leads to, skipping the files that are already there
+    public List<TablebaseStats> generate(String name) throws IOException {
+        List<TablebaseStats> generated = new ArrayList<>();
+        this.generate(Material.parse(name), generated);
+        return generated;
+    }
+
+    private void generate(Material material, List<TablebaseStats> generated) throws IOException {
+        if (material.size() <= 2 || Files.exists(Tablebase.file(this.directory, material))) {
+            return;
+        }
+        for (Material next : successors(material)) {
+            this.generate(next, generated);
+        }
+        Files.createDirectories(this.directory);
+        long start = System.nanoTime();
+        try (Tablebase tablebase = new Tablebase(this.directory)) {
+            Builder builder = new Builder(material, tablebase);
+            builder.build();
+            this.write(material, builder.values);
+            generated.add(builder.stats(System.nanoTime() - start));
+        }
+    }
+
+    // the materials a capture or a promotion leads to
+    private static List<Material> successors(Material material) {
+        List<Material> successors = new ArrayList<>();
+        int count = material.size();
+        for (int slot = 0; slot < count; slot++) {
+            if (material.type(slot) != PieceType.KING) {
+                successors.add(Material.of(without(material, slot, -1, null), count - 1));
+            }
+            if (material.type(slot) != PieceType.PAWN) {
+                continue;
+            }
+            for (PieceType type : PROMOTIONS) {
+                successors.add(Material.of(without(material, -1, slot, type), count));
+                for (int captured = 0; captured < count; captured++) {
+                    if (material.color(captured) != material.color(slot) && material.type(captured) != PieceType.KING) {
+                        successors.add(Material.of(without(material, captured, slot, type), count - 1));
+                    }
+                }
+            }
+        }
+        return successors;
+    }
+
+    private static int[] without(Material material, int removed, int promoted, PieceType promotion) {
+        int[] pieces = new int[material.size() - (removed >= 0 ? 1 : 0)];
+        int count = 0;
+        for (int slot = 0; slot < material.size(); slot++) {
+            if (slot != removed) {
+                pieces[count++] = Material.piece(material.color(slot), slot == promoted ? promotion : material.type(slot), 0);
+            }
+        }
+        return pieces;
+    }
+
+    // written next to its final name first, so an interrupted run never leaves a short table behind
+    private void write(Material material, byte[] values) throws IOException {
+        Path path = Tablebase.file(this.directory, material);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        byte[] header = new byte[Tablebase.HEADER_SIZE];
+        System.arraycopy(Tablebase.MAGIC, 0, header, 0, Tablebase.MAGIC.length);
+        header[4] = Tablebase.VERSION;
+        header[5] = (byte) material.size();
+        byte[] name = material.name().getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(name, 0, header, 6, name.length);
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            out.write(header);
+            out.write(values);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // the work on one table; the passes split the indexes into chunks and every chunk gets its own Worker
+    private class Builder {
+
+        private Material material;
+        private Tablebase tablebase;
+        private int size;
+        private Color[] colors;
+        private PieceType[] types;
+        private int[] kings;
+        private byte[] values;
+        private byte[] seeds;
+
+        Builder(Material material, Tablebase tablebase) {
+            this.material = material;
+            this.tablebase = tablebase;
+            this.size = material.size();
+            this.colors = new Color[this.size];
+            this.types = new PieceType[this.size];
+            this.kings = new int[2];
+            for (int slot = 0; slot < this.size; slot++) {
+                this.colors[slot] = material.color(slot);
+                this.types[slot] = material.type(slot);
+                if (this.types[slot] == PieceType.KING) {
+                    this.kings[this.colors[slot].ordinal()] = slot;
+                }
+            }
+            this.values = new byte[material.entries()];
+            this.seeds = new byte[material.entries()];
+        }
+
+        void build() {
+            Worker total = this.run(0);
+            int horizon = Math.max(total.horizon, 2);
+            for (int ply = 1; ply <= horizon; ply++) {
+                Worker pass = this.run(ply);
+                if (pass.changes > 0) {
+                    horizon = Math.max(horizon, Math.max(ply + 2, pass.horizon));
+                }
+            }
+        }
+
+        // ply 0 is the first pass over all indexes, odd plies assign wins and even plies losses
+        private Worker run(int ply) {
+            int chunks = TablebaseGenerator.this.threads * CHUNKS_PER_THREAD;
+            int step = (this.values.length + chunks - 1) / chunks;
+            List<Worker> workers = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            ForkJoinPool pool = new ForkJoinPool(TablebaseGenerator.this.threads);
+            try {
+                for (int start = 0; start < this.values.length; start += step) {
+                    Worker worker = new Worker(this, start, Math.min(this.values.length, start + step));
+                    workers.add(worker);
+                    futures.add(pool.submit(() -> worker.run(ply)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating " + this.material.name(), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            Worker total = new Worker(this, 0, 0);
+            for (Worker worker : workers) {
+                total.changes += worker.changes;
+                total.horizon = Math.max(total.horizon, worker.horizon);
+            }
+            return total;
+        }
+
+        TablebaseStats stats(long nanos) {
+            long wins = 0;
+            long losses = 0;
+            long draws = 0;
+            int longest = 0;
+            int longestIndex = -1;
+            for (int index = 0; index < this.values.length; index++) {
+                int value = this.values[index];
+                if (value == Tablebase.ILLEGAL) {
+                    continue;
+                }
+                if (value > 0) {
+                    wins++;
+                    if (value > longest) {
+                        longest = value;
+                        longestIndex = index;
+                    }
+                } else if (value < 0) {
+                    losses++;
+                } else {
+                    draws++;
+                }
+            }
+            String example = longestIndex < 0 ? null : this.fen(longestIndex);
+            return new TablebaseStats(this.material.name(), wins, losses, draws, longest, example, nanos);
+        }
+
+        private String fen(int index) {
+            int[] squares = new int[this.size];
+            Color sideToMove = this.material.decode(index, squares);
+            char[] board = new char[64];
+            for (int slot = 0; slot < this.size; slot++) {
+                char letter = this.types[slot].getLetter();
+                board[squares[slot]] = this.colors[slot] == Color.WHITE ? letter : Character.toLowerCase(letter);
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int row = 0; row < 8; row++) {
+                int empty = 0;
+                for (int column = 0; column < 8; column++) {
+                    char letter = board[row * 8 + column];
+                    if (letter == 0) {
+                        empty++;
+                        continue;
+                    }
+                    if (empty > 0) {
+                        sb.append(empty);
+                        empty = 0;
+                    }
+                    sb.append(letter);
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                }
+                sb.append(row < 7 ? '/' : ' ');
+            }
+            return sb.append(sideToMove == Color.WHITE ? "w" : "b").append(" - - 0 1").toString();
+        }
+    }
+
+    private static class Worker {
+
+        // what a position's moves add up to
+        private static final int NOT_LOST = -1;
+
+        private Builder builder;
+        private int start;
+        private int end;
+        private int[] squares;
+        private int[] moved;
+        private int[] exit;
+        private int[] exitSquares;
+        private long changes;
+        private int horizon;
+
+        // filled in by moves()
+        private int legal;
+        private boolean quiet;
+        private int fastestWin;
+        private int slowestLoss;
+        private boolean lost;
+
+        Worker(Builder builder, int start, int end) {
+            this.builder = builder;
+            this.start = start;
+            this.end = end;
+            this.squares = new int[builder.size];
+            this.moved = new int[builder.size];
+            this.exit = new int[builder.size];
+            this.exitSquares = new int[builder.size];
+        }
+
+        void run(int ply) {
+            if (ply == 0) {
+                this.initialize();
+            } else if (ply % 2 == 1) {
+                this.wins(ply);
+            } else {
+                this.losses(ply);
+            }
+        }
+
+        private void initialize() {
+            byte[] values = this.builder.values;
+            for (int index = this.start; index < this.end; index++) {
+                Color sideToMove = this.builder.material.decode(index, this.squares);
+                if (!this.isLegal(sideToMove)) {
+                    values[index] = Tablebase.ILLEGAL;
+                    continue;
+                }
+                this.moves(sideToMove, false);
+                if (this.legal == 0) {
+                    // mated, or stalemate, which stays a draw
+                    if (this.isAttacked(this.squares[this.builder.kings[sideToMove.ordinal()]], Material.opposite(sideToMove), this.squares, -1)) {
+                        values[index] = loss(0);
+                        this.horizon = Math.max(this.horizon, 1);
+                    }
+                    continue;
+                }
+                if (this.fastestWin > 0) {
+                    this.builder.seeds[index] = (byte) checked(this.fastestWin);
+                    this.horizon = Math.max(this.horizon, this.fastestWin);
+                } else if (!this.quiet && this.lost) {
+                    // nothing but captures and promotions, all of them losing
+                    values[index] = loss(this.slowestLoss);
+                    this.horizon = Math.max(this.horizon, this.slowestLoss + 1);
+                }
+            }
+        }
+
+        // positions one move before a loss in ply - 1 win in ply, and so do those whose best exit wins in ply
+        private void wins(int ply) {
+            byte[] values = this.builder.values;
+            byte[] seeds = this.builder.seeds;
+            byte before = loss(ply - 1);
+            byte value = win(ply);
+            for (int index = this.start; index < this.end; index++) {
+                if (values[index] == 0 && seeds[index] == ply) {
+                    values[index] = value;
+                    this.changes++;
+                }
+                if (values[index] != before) {
+                    continue;
+                }
+                Color moving = Material.opposite(this.builder.material.decode(index, this.squares));
+                for (int slot = 0; slot < this.builder.size; slot++) {
+                    if (this.builder.colors[slot] != moving) {
+                        continue;
+                    }
+                    long from = this.unmoves(slot, moving);
+                    while (from != 0) {
+                        int previous = this.index(moving, slot, Long.numberOfTrailingZeros(from));
+                        from &= from - 1;
+                        if (values[previous] == 0) {
+                            values[previous] = value;
+                            this.changes++;
+                        }
+                    }
+                }
+            }
+        }
+
+        // positions one move before a win in ply - 1 lose once all their moves lose
+        private void losses(int ply) {
+            byte[] values = this.builder.values;
+            byte before = win(ply - 1);
+            int[] candidate = new int[this.builder.size];
+            for (int index = this.start; index < this.end; index++) {
+                if (values[index] != before) {
+                    continue;
+                }
+                Color moving = Material.opposite(this.builder.material.decode(index, this.squares));
+                for (int slot = 0; slot < this.builder.size; slot++) {
+                    if (this.builder.colors[slot] != moving) {
+                        continue;
+                    }
+                    long from = this.unmoves(slot, moving);
+                    while (from != 0) {
+                        int square = Long.numberOfTrailingZeros(from);
+                        int previous = this.index(moving, slot, square);
+                        from &= from - 1;
+                        if (values[previous] != 0) {
+                            continue;
+                        }
+                        System.arraycopy(this.squares, 0, candidate, 0, candidate.length);
+                        candidate[slot] = square;
+                        int[] squares = this.squares;
+                        this.squares = candidate;
+                        this.moves(moving, true);
+                        this.squares = squares;
+                        if (this.legal > 0 && this.lost) {
+                            values[previous] = loss(this.slowestLoss);
+                            this.changes++;
+                            this.horizon = Math.max(this.horizon, this.slowestLoss + 1);
+                        }
+                    }
+                }
+            }
+        }
+
+        // the empty squares the piece in slot can have come from with a quiet move
+        private long unmoves(int slot, Color color) {
+            int square = this.squares[slot];
+            long occupied = this.occupied(this.squares, -1);
+            long empty = ~occupied;
+            switch (this.builder.types[slot]) {
+                case PAWN:
+                    int back = color == Color.WHITE ? 8 : -8;
+                    int row = square / 8;
+                    // a pawn can not have stood on its own back rank, nor have moved onto the last one
+                    if (row == (color == Color.WHITE ? 6 : 1) || row == (color == Color.WHITE ? 0 : 7)) {
+                        return 0L;
+                    }
+                    long from = 1L << (square + back) & empty;
+                    if (from != 0 && row == (color == Color.WHITE ? 4 : 3)) {
+                        from |= 1L << (square + 2 * back) & empty;
+                    }
+                    return from;
+                case KNIGHT:
+                    return Attacks.knightAttacks(square) & empty;
+                case BISHOP:
+                    return Attacks.bishopAttacks(square, occupied) & empty;
+                case ROOK:
+                    return Attacks.rookAttacks(square, occupied) & empty;
+                case QUEEN:
+                    return Attacks.queenAttacks(square, occupied) & empty;
+                default:
+                    return Attacks.kingAttacks(square) & empty;
+            }
+        }
+
+        // the index with the piece in slot on square and the other side to move
+        private int index(Color moving, int slot, int square) {
+            int saved = this.squares[slot];
+            this.squares[slot] = square;
+            int index = this.builder.material.index(moving, this.squares);
+            this.squares[slot] = saved;
+            return index;
+        }
+
+        // goes through the legal moves of the position in squares: legal counts them, quiet tells whether any stays
+        // in the table, fastestWin is the quickest win through a capture or a promotion, and lost whether every move
+        // looked at loses, slowestLoss being the plies until the mate. With all set, quiet moves are looked up too
+        // and the first move that does not lose ends the search
+        private void moves(Color sideToMove, boolean all) {
+            this.legal = 0;
+            this.quiet = false;
+            this.fastestWin = 0;
+            this.slowestLoss = 0;
+            this.lost = true;
+            long own = 0L;
+            long enemy = 0L;
+            for (int slot = 0; slot < this.builder.size; slot++) {
+                if (this.builder.colors[slot] == sideToMove) {
+                    own |= 1L << this.squares[slot];
+                } else {
+                    enemy |= 1L << this.squares[slot];
+                }
+            }
+            long occupied = own | enemy;
+            for (int slot = 0; slot < this.builder.size && (!all || this.lost); slot++) {
+                if (this.builder.colors[slot] != sideToMove) {
+                    continue;
+                }
+                int square = this.squares[slot];
+                long targets;
+                switch (this.builder.types[slot]) {
+                    case PAWN:
+                        this.pawnMoves(slot, sideToMove, occupied, enemy, all);
+                        continue;
+                    case KNIGHT:
+                        targets = Attacks.knightAttacks(square);
+                        break;
+                    case BISHOP:
+                        targets = Attacks.bishopAttacks(square, occupied);
+                        break;
+                    case ROOK:
+                        targets = Attacks.rookAttacks(square, occupied);
+                        break;
+                    case QUEEN:
+                        targets = Attacks.queenAttacks(square, occupied);
+                        break;
+                    default:
+                        targets = Attacks.kingAttacks(square);
+                }
+                targets &= ~own;
+                while (targets != 0 && (!all || this.lost)) {
+                    this.move(slot, Long.numberOfTrailingZeros(targets), null, sideToMove, all);
+                    targets &= targets - 1;
+                }
+            }
+        }
+
+        private void pawnMoves(int slot, Color sideToMove, long occupied, long enemy, boolean all) {
+            int square = this.squares[slot];
+            int forward = sideToMove == Color.WHITE ? -8 : 8;
+            int lastRow = sideToMove == Color.WHITE ? 0 : 7;
+            long targets = Attacks.pawnAttacks(sideToMove, square) & enemy;
+            int push = square + forward;
+            if ((occupied & 1L << push) == 0) {
+                targets |= 1L << push;
+                if (square / 8 == (sideToMove == Color.WHITE ? 6 : 1) && (occupied & 1L << (push + forward)) == 0) {
+                    targets |= 1L << (push + forward);
+                }
+            }
+            while (targets != 0 && (!all || this.lost)) {
+                int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                if (target / 8 != lastRow) {
+                    this.move(slot, target, null, sideToMove, all);
+                    continue;
+                }
+                for (PieceType promotion : PROMOTIONS) {
+                    this.move(slot, target, promotion, sideToMove, all);
+                }
+            }
+        }
+
+        private void move(int slot, int target, PieceType promotion, Color sideToMove, boolean all) {
+            int captured = -1;
+            for (int other = 0; other < this.builder.size; other++) {
+                if (other != slot && this.squares[other] == target) {
+                    captured = other;
+                }
+            }
+            if (!all && this.quiet && captured < 0 && promotion == null) {
+                // one legal quiet move is all the first pass needs to know
+                return;
+            }
+            System.arraycopy(this.squares, 0, this.moved, 0, this.moved.length);
+            this.moved[slot] = target;
+            Color opponent = Material.opposite(sideToMove);
+            if (this.isAttacked(this.moved[this.builder.kings[sideToMove.ordinal()]], opponent, this.moved, captured)) {
+                return;
+            }
+            this.legal++;
+
+            int value;
+            if (captured < 0 && promotion == null) {
+                this.quiet = true;
+                if (!all) {
+                    return;
+                }
+                value = this.builder.values[this.builder.material.index(opponent, this.moved)];
+            } else {
+                int count = 0;
+                for (int other = 0; other < this.builder.size; other++) {
+                    if (other != captured) {
+                        PieceType type = other == slot && promotion != null ? promotion : this.builder.types[other];
+                        this.exit[count++] = Material.piece(this.builder.colors[other], type, this.moved[other]);
+                    }
+                }
+                value = this.builder.tablebase.entry(this.exit, count, opponent == Color.WHITE, this.exitSquares);
+                if (value == Tablebase.UNKNOWN) {
+                    throw new IllegalStateException("No table for " + Material.of(this.exit, count).name());
+                }
+            }
+
+            if (value > 0) {
+                // the opponent wins
+                this.slowestLoss = Math.max(this.slowestLoss, value + 1);
+            } else {
+                this.lost = false;
+                if (value < 0) {
+                    int win = -value;
+                    this.fastestWin = this.fastestWin == 0 ? win : Math.min(this.fastestWin, win);
+                }
+            }
+        }
+
+        // the side not to move may not be in check, and pawns never stand on the first or last rank
+        private boolean isLegal(Color sideToMove) {
+            long occupied = 0L;
+            for (int slot = 0; slot < this.builder.size; slot++) {
+                int square = this.squares[slot];
+                if ((occupied & 1L << square) != 0) {
+                    return false;
+                }
+                occupied |= 1L << square;
+                if (this.builder.types[slot] == PieceType.PAWN && (square / 8 == 0 || square / 8 == 7)) {
+                    return false;
+                }
+            }
+            Color other = Material.opposite(sideToMove);
+            return !this.isAttacked(this.squares[this.builder.kings[other.ordinal()]], sideToMove, this.squares, -1);
+        }
+
+        private long occupied(int[] squares, int captured) {
+            long occupied = 0L;
+            for (int slot = 0; slot < this.builder.size; slot++) {
+                if (slot != captured) {
+                    occupied |= 1L << squares[slot];
+                }
+            }
+            return occupied;
+        }
+
+        private boolean isAttacked(int square, Color by, int[] squares, int captured) {
+            long occupied = this.occupied(squares, captured);
+            for (int slot = 0; slot < this.builder.size; slot++) {
+                if (slot == captured || this.builder.colors[slot] != by) {
+                    continue;
+                }
+                int from = squares[slot];
+                long attacks;
+                switch (this.builder.types[slot]) {
+                    case PAWN:
+                        attacks = Attacks.pawnAttacks(by, from);
+                        break;
+                    case KNIGHT:
+                        attacks = Attacks.knightAttacks(from);
+                        break;
+                    case BISHOP:
+                        attacks = Attacks.bishopAttacks(from, occupied);
+                        break;
+                    case ROOK:
+                        attacks = Attacks.rookAttacks(from, occupied);
+                        break;
+                    case QUEEN:
+                        attacks = Attacks.queenAttacks(from, occupied);
+                        break;
+                    default:
+                        attacks = Attacks.kingAttacks(from);
+                }
+                if ((attacks & 1L << square) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte win(int plies) {
+            return (byte) checked(plies);
+        }
+
+        private static byte loss(int plies) {
+            return (byte) -(checked(plies) + 1);
+        }
+
+        private static int checked(int plies) {
+            if (plies > Byte.MAX_VALUE - 1) {
+                throw new IllegalStateException("A mate in " + plies + " plies does not fit a table entry");
+            }
+            return plies;
+        }
+    }
+}
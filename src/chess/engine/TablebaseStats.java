@@ -0,0 +1,63 @@
+package chess.engine;
+
+// what one generated table holds; the counts are of legal positions, for both sides to move
+public class TablebaseStats {
+
+    private String name;
+    private long wins;
+    private long losses;
+    private long draws;
+    private int longestMate;
+    private String longestMatePosition;
+    private long nanos;
+
+    public TablebaseStats(String name, long wins, long losses, long draws, int longestMate, String longestMatePosition, long nanos) {
+        this.name = name;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+        this.longestMate = longestMate;
+        this.longestMatePosition = longestMatePosition;
+        this.nanos = nanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    // in plies, 0 when nothing wins
+    public int getLongestMate() {
+        return longestMate;
+    }
+
+    // a FEN of one position with the longest mate, or null
+    public String getLongestMatePosition() {
+        return longestMatePosition;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        String s = this.name + ": " + this.wins + " wins, " + this.losses + " losses, " + this.draws + " draws in "
+                + this.nanos / 1_000_000 + " ms";
+        if (this.longestMate > 0) {
+            s += ", longest mate " + this.longestMate + " plies (" + this.longestMatePosition + ")";
+        }
+        return s;
+    }
+}
@@ -0,0 +1,164 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_UPPER = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_EXACT = 3;
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final int AGE_MASK = 0x3F;
+    private static final long MAX_BUCKETS = 1L << 27;
+
+    // data layout: move 16 | score 16 | depth 8 | bound 2 | age 6 | key check 16
+    private static final int SCORE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 32;
+    private static final int BOUND_SHIFT = 40;
+    private static final int AGE_SHIFT = 42;
+    private static final int CHECK_SHIFT = 48;
+
+    // each entry is two longs: key ^ data, then data; a torn write fails the XOR check and reads as a miss
+    private long[] entries;
+    private int bucketMask;
+    private volatile int age;
+
+    private LongAdder hits;
+    private LongAdder misses;
+    private LongAdder collisions;
+
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("The transposition table needs at least 1 MB");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (ENTRY_BYTES * BUCKET_SIZE));
+        buckets = Math.max(1L, Math.min(buckets, MAX_BUCKETS));
+        this.entries = new long[(int) buckets * BUCKET_SIZE * 2];
+        this.bucketMask = (int) buckets - 1;
+        this.age = 0;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.collisions = new LongAdder();
+    }
+
+    public int getCapacity() {
+        return this.entries.length / 2;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public void newSearch() {
+        this.age = (this.age + 1) & AGE_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(this.entries, 0L);
+        this.age = 0;
+        this.hits.reset();
+        this.misses.reset();
+        this.collisions.reset();
+    }
+
+    // returns the packed data of the entry for this key, or 0 when there is none
+    public long probe(long key) {
+        int index = this.bucketIndex(key);
+        for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+            long data = this.entries[index + 1];
+            if (data != 0 && (this.entries[index] ^ data) == key) {
+                this.hits.increment();
+                return data;
+            }
+        }
+        this.misses.increment();
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int index = this.bucketIndex(key);
+        int check = (int) (key >>> CHECK_SHIFT);
+        int currentAge = this.age;
+        int victim = index;
+        int victimWorth = Integer.MAX_VALUE;
+
+        for (int i = 0; i < BUCKET_SIZE; i++, index += 2) {
+            long data = this.entries[index + 1];
+            if (data == 0) {
+                victim = index;
+                victimWorth = Integer.MIN_VALUE;
+                break;
+            }
+            if ((this.entries[index] ^ data) == key) {
+                // same position: keep a deeper result from this search unless the new one is exact
+                if (bound != BOUND_EXACT && getAge(data) == currentAge && getDepth(data) > depth) {
+                    return;
+                }
+                if (move == Move.NONE) {
+                    move = getMove(data);
+                }
+                victim = index;
+                victimWorth = Integer.MIN_VALUE;
+                break;
+            }
+            // entries from older searches go first, then the shallowest
+            int worth = getDepth(data) - 8 * ((currentAge - getAge(data)) & AGE_MASK);
+            if (worth < victimWorth) {
+                victim = index;
+                victimWorth = worth;
+            }
+        }
+
+        long old = this.entries[victim + 1];
+        if (old != 0 && (this.entries[victim] ^ old) != key && getAge(old) == currentAge) {
+            this.collisions.increment();
+        }
+
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << SCORE_SHIFT)
+                | ((long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT)
+                | ((long) check << CHECK_SHIFT);
+        this.entries[victim] = key ^ data;
+        this.entries[victim + 1] = data;
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int getScore(long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int getBound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int getAge(long data) {
+        return (int) ((data >>> AGE_SHIFT) & AGE_MASK);
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) key & this.bucketMask) * BUCKET_SIZE * 2;
+    }
+}
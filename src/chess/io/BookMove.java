@@ -0,0 +1,47 @@
+package chess.io;
+
+import chess.ChessBoard;
+import chess.ChessPosition;
+import chess.Move;
+import chess.PieceType;
+
+public class BookMove {
+
+    private int move;
+    private int weight;
+
+    public BookMove(int move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    // in Move encoding, castling as the king's two-square move
+    public int getMove() {
+        return move;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public ChessPosition getSource() {
+        return position(Move.getFrom(this.move));
+    }
+
+    public ChessPosition getTarget() {
+        return position(Move.getTo(this.move));
+    }
+
+    public PieceType getPromotion() {
+        return Move.getPromotion(this.move);
+    }
+
+    private static ChessPosition position(int square) {
+        return new ChessPosition((char) ('a' + ChessBoard.column(square)), ChessBoard.SIZE - ChessBoard.row(square));
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(this.move) + " " + this.weight;
+    }
+}
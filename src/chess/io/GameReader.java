@@ -0,0 +1,133 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Move;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// reads the binary record format back one game and one move at a time:
+//
+//   while (reader.nextGame()) {
+//       for (int move = reader.nextMove(); move != Move.NONE; move = reader.nextMove()) { ... }
+//   }
+//
+// moves left unread when nextGame is called again are skipped
+public class GameReader implements Closeable {
+
+    private DataInputStream in;
+    private boolean inGame;
+    private boolean clocks;
+    private String fen;
+    private GameResult result;
+    private long clock;
+
+    public GameReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        byte[] magic = new byte[GameRecordFormat.MAGIC.length];
+        this.in.readFully(magic);
+        if (!Arrays.equals(magic, GameRecordFormat.MAGIC)) {
+            throw new IOException("Not a game record file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version < GameRecordFormat.FIRST_VERSION || version > GameRecordFormat.VERSION) {
+            throw new IOException("Unsupported game record version " + version);
+        }
+    }
+
+    public boolean nextGame() throws IOException {
+        while (this.inGame) {
+            this.nextMove();
+        }
+        int flags = this.in.read();
+        if (flags < 0) {
+            return false;
+        }
+        this.clocks = (flags & GameRecordFormat.FLAG_CLOCKS) != 0;
+        this.fen = null;
+        if ((flags & GameRecordFormat.FLAG_START_POSITION) != 0) {
+            long length = readVarint(this.in);
+            if (length > GameRecordFormat.MAX_FEN_LENGTH) {
+                throw new IOException("Corrupt start position");
+            }
+            byte[] bytes = new byte[(int) length];
+            this.in.readFully(bytes);
+            this.fen = new String(bytes, StandardCharsets.US_ASCII);
+        }
+        this.result = null;
+        this.inGame = true;
+        return true;
+    }
+
+    // stored after the moves, so it is null until nextMove has returned Move.NONE
+    public GameResult getResult() {
+        return result;
+    }
+
+    // the FEN the game starts from, or null for the initial setup
+    public String getFen() {
+        return fen;
+    }
+
+    public ChessMatch newStartPosition() {
+        return this.fen == null ? new ChessMatch() : new ChessMatch(this.fen);
+    }
+
+    public boolean hasClocks() {
+        return clocks;
+    }
+
+    // the clock recorded with the move last returned by nextMove
+    public long getClock() {
+        return clock;
+    }
+
+    // Move.NONE once the game is over
+    public int nextMove() throws IOException {
+        if (!this.inGame) {
+            return Move.NONE;
+        }
+        int move;
+        try {
+            move = this.in.readUnsignedShort();
+        } catch (EOFException e) {
+            throw new IOException("Game record ends in the middle of a game", e);
+        }
+        if (move == GameRecordFormat.END_OF_GAME) {
+            int result = this.in.readUnsignedByte();
+            if (result >= GameResult.values().length) {
+                throw new IOException("Corrupt game result");
+            }
+            this.result = GameResult.values()[result];
+            this.inGame = false;
+            return Move.NONE;
+        }
+        if (this.clocks) {
+            this.clock = readVarint(this.in);
+        }
+        return move;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt clock value");
+    }
+}
@@ -0,0 +1,26 @@
+package chess.io;
+
+// binary game records:
+//
+//   file:  "CHSG" version:u8 game*
+//   game:  flags:u8 [fen length:varint fen:ascii] (move:u16 [clock:varint])* 0x0000 result:u8
+//
+// a move is the 15 bit Move encoding (from | to << 6 | promotion << 12) in big-endian order; Move.NONE (a8 to a8)
+// can never be played, so it ends the game. With FLAG_CLOCKS set every move is followed by the mover's remaining
+// time in milliseconds as an unsigned LEB128 varint. With FLAG_START_POSITION set the game starts from the FEN that
+// follows the flags, otherwise from the initial setup. The result comes last so a game can be written while it is
+// played. Version 1 files are read as well, they never set FLAG_START_POSITION
+final class GameRecordFormat {
+
+    static final byte[] MAGIC = {'C', 'H', 'S', 'G'};
+    static final int VERSION = 2;
+    static final int FIRST_VERSION = 1;
+    static final int FLAG_CLOCKS = 1;
+    static final int FLAG_START_POSITION = 2;
+    // far more than any position needs, so a corrupt length is caught before it is allocated
+    static final int MAX_FEN_LENGTH = 256;
+    static final int END_OF_GAME = 0;
+
+    private GameRecordFormat() {
+    }
+}
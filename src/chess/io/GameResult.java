@@ -0,0 +1,38 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Color;
+
+public enum GameResult {
+    UNKNOWN("*"),
+    WHITE_WINS("1-0"),
+    BLACK_WINS("0-1"),
+    DRAW("1/2-1/2");
+
+    private final String notation;
+
+    GameResult(String notation) {
+        this.notation = notation;
+    }
+
+    public String getNotation() {
+        return notation;
+    }
+
+    // the side to move stays the winner after a checkmate, as performChessMove does not pass the turn
+    public static GameResult of(ChessMatch chessMatch) {
+        if (chessMatch.isCheckmate()) {
+            return chessMatch.getCurrentPlayer() == Color.WHITE ? WHITE_WINS : BLACK_WINS;
+        }
+        return chessMatch.isDraw() ? DRAW : UNKNOWN;
+    }
+
+    public static GameResult fromNotation(String notation) {
+        for (GameResult result : values()) {
+            if (result.notation.equals(notation)) {
+                return result;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,127 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Move;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// streams games into the binary record format one move at a time, so a game is never held in memory;
+// see GameRecordFormat for the layout
+public class GameWriter implements Closeable {
+
+    private DataOutputStream out;
+    private boolean inGame;
+    private boolean clocks;
+    private long games;
+
+    public GameWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.write(GameRecordFormat.MAGIC);
+        this.out.writeByte(GameRecordFormat.VERSION);
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public void beginGame(boolean withClocks) throws IOException {
+        this.beginGame(null, withClocks);
+    }
+
+    // a game starting from the position of a FEN, or from the initial setup when fen is null
+    public void beginGame(String fen, boolean withClocks) throws IOException {
+        if (this.inGame) {
+            throw new IllegalStateException("The previous game was not ended");
+        }
+        if (fen == null) {
+            this.out.writeByte(withClocks ? GameRecordFormat.FLAG_CLOCKS : 0);
+        } else {
+            byte[] bytes = fen.getBytes(StandardCharsets.US_ASCII);
+            if (bytes.length > GameRecordFormat.MAX_FEN_LENGTH) {
+                throw new IllegalArgumentException("Not a FEN: " + fen);
+            }
+            this.out.writeByte(GameRecordFormat.FLAG_START_POSITION | (withClocks ? GameRecordFormat.FLAG_CLOCKS : 0));
+            writeVarint(this.out, bytes.length);
+            this.out.write(bytes);
+        }
+        this.inGame = true;
+        this.clocks = withClocks;
+    }
+
+    public void writeMove(int move) throws IOException {
+        if (this.clocks) {
+            throw new IllegalStateException("This game records a clock with every move");
+        }
+        this.writeMoveBits(move);
+    }
+
+    public void writeMove(int move, long clockMillis) throws IOException {
+        if (!this.clocks) {
+            throw new IllegalStateException("This game was begun without clocks");
+        }
+        this.writeMoveBits(move);
+        writeVarint(this.out, clockMillis);
+    }
+
+    // the move just made in a match, including the piece chosen for a promotion
+    public void writeLastMove(ChessMatch chessMatch) throws IOException {
+        this.writeMove(chessMatch.getLastMove());
+    }
+
+    public void endGame(GameResult result) throws IOException {
+        if (!this.inGame) {
+            throw new IllegalStateException("There is no game to end");
+        }
+        this.out.writeShort(GameRecordFormat.END_OF_GAME);
+        this.out.writeByte(result.ordinal());
+        this.inGame = false;
+        this.games++;
+    }
+
+    public void writeGame(GameResult result, int[] moves, int count) throws IOException {
+        this.writeGame(null, result, moves, count);
+    }
+
+    public void writeGame(String fen, GameResult result, int[] moves, int count) throws IOException {
+        this.beginGame(fen, false);
+        for (int i = 0; i < count; i++) {
+            this.writeMove(moves[i]);
+        }
+        this.endGame(result);
+    }
+
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    private void writeMoveBits(int move) throws IOException {
+        if (!this.inGame) {
+            throw new IllegalStateException("There is no game to write to");
+        }
+        if (move == Move.NONE || move >>> 16 != 0) {
+            throw new IllegalArgumentException("Not an encoded move: " + move);
+        }
+        this.out.writeShort(move);
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Clocks can not be negative");
+        }
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
@@ -0,0 +1,50 @@
+package chess.io;
+
+import chess.Move;
+
+// how often one move was played from a position, and the results of those games
+public class MoveStats {
+
+    private int move;
+    private int whiteWins;
+    private int draws;
+    private int blackWins;
+
+    public MoveStats(int move, int whiteWins, int draws, int blackWins) {
+        this.move = move;
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+    }
+
+    // in Move encoding
+    public int getMove() {
+        return move;
+    }
+
+    public int getWhiteWins() {
+        return whiteWins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getBlackWins() {
+        return blackWins;
+    }
+
+    public long getGames() {
+        return (long) this.whiteWins + this.draws + this.blackWins;
+    }
+
+    // white's points per game, a draw counting half
+    public double getWhiteScore() {
+        return this.getGames() == 0 ? 0.0 : (this.whiteWins + this.draws / 2.0) / this.getGames();
+    }
+
+    @Override
+    public String toString() {
+        return Move.toString(this.move) + " " + this.getGames() + " games, +" + this.whiteWins + " =" + this.draws + " -" + this.blackWins;
+    }
+}
@@ -0,0 +1,50 @@
+package chess.io;
+
+import chess.ChessMatch;
+
+import java.util.Collections;
+import java.util.Map;
+
+// one imported game: its tag pairs, its moves in Move encoding and its result; the moves start from the position of
+// the FEN tag when there is one, and from the initial setup otherwise
+public class PgnGame {
+
+    private Map<String, String> tags;
+    private int[] moves;
+    private GameResult result;
+
+    public PgnGame(Map<String, String> tags, int[] moves, GameResult result) {
+        this.tags = tags;
+        this.moves = moves;
+        this.result = result;
+    }
+
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    public String getTag(String name) {
+        return this.tags.get(name);
+    }
+
+    public ChessMatch newStartPosition() {
+        String fen = this.tags.get("FEN");
+        return fen == null ? new ChessMatch() : new ChessMatch(fen);
+    }
+
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    public int getMoveCount() {
+        return this.moves.length;
+    }
+
+    public int getMove(int ply) {
+        return this.moves[ply];
+    }
+
+    public GameResult getResult() {
+        return result;
+    }
+}
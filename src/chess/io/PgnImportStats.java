@@ -0,0 +1,50 @@
+package chess.io;
+
+// totals of one import run
+public class PgnImportStats {
+
+    private long games;
+    private long plies;
+    private long errors;
+    private long bytes;
+    private long nanos;
+
+    public PgnImportStats(long games, long plies, long errors, long bytes, long nanos) {
+        this.games = games;
+        this.plies = plies;
+        this.errors = errors;
+        this.bytes = bytes;
+        this.nanos = nanos;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getPlies() {
+        return plies;
+    }
+
+    // malformed games that were skipped
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getGamesPerSecond() {
+        return this.nanos == 0 ? this.games : this.games * 1_000_000_000L / this.nanos;
+    }
+
+    @Override
+    public String toString() {
+        return this.games + " games, " + this.plies + " plies, " + this.errors + " skipped in " + this.nanos / 1_000_000
+                + " ms (" + this.getGamesPerSecond() + " games/s, " + (this.nanos == 0 ? 0 : this.bytes * 1000 / this.nanos) + " MB/s)";
+    }
+}
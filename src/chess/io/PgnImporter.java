@@ -0,0 +1,193 @@
+package chess.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+// bulk PGN import: the file is memory-mapped, cut into chunks on game boundaries and the chunks are parsed in parallel
+// on a fork-join pool, every task with its own parser and match. The handler is called from the worker threads, in no
+// particular order, so it has to be thread-safe. Malformed games are counted and skipped; they never stop the batch
+public class PgnImporter {
+
+    // chunks are mapped one by one, so none may reach the 2GB limit of a mapped buffer
+    private static final long MAX_CHUNK = 64L << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_SIZE = 64 << 10;
+
+    private int parallelism;
+
+    public PgnImporter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public PgnImporter(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public PgnImportStats importFile(Path path, Consumer<PgnGame> handler) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = this.split(channel, size);
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                tasks.add(new ChunkTask(channel, null, bounds[i], bounds[i + 1], handler));
+            }
+            return this.run(tasks, size, start);
+        }
+    }
+
+    // text already in memory, from its position to its limit, split the same way; the buffer itself is left as it was
+    public PgnImportStats importBytes(ByteBuffer text, Consumer<PgnGame> handler) throws IOException {
+        long start = System.nanoTime();
+        int end = text.limit();
+        int size = text.remaining();
+        List<ChunkTask> tasks = new ArrayList<>();
+        long chunk = Math.max(SCAN_SIZE, size / ((long) this.parallelism * CHUNKS_PER_THREAD));
+        long from = text.position();
+        while (from < end) {
+            long to = from + chunk >= end ? end : nextGame(text, (int) (from + chunk), end);
+            tasks.add(new ChunkTask(null, text, from, to, handler));
+            from = to;
+        }
+        return this.run(tasks, size, start);
+    }
+
+    private PgnImportStats run(List<ChunkTask> tasks, long bytes, long start) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            ForkJoinTask<PgnImportStats> all = pool.submit(new RecursiveTask<>() {
+                @Override
+                protected PgnImportStats compute() {
+                    ForkJoinTask.invokeAll(tasks);
+                    long games = 0;
+                    long plies = 0;
+                    long errors = 0;
+                    for (ChunkTask task : tasks) {
+                        PgnParser parser = task.join();
+                        games += parser.getGames();
+                        plies += parser.getPlies();
+                        errors += parser.getErrors();
+                    }
+                    return new PgnImportStats(games, plies, errors, bytes, 0);
+                }
+            });
+            PgnImportStats stats = all.get();
+            return new PgnImportStats(stats.getGames(), stats.getPlies(), stats.getErrors(), bytes, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            // a chunk that could not be mapped, or a handler that threw
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("Import failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // chunk boundaries at roughly even offsets, each moved forward to the start of the next game
+    private long[] split(FileChannel channel, long size) throws IOException {
+        long chunks = Math.max((long) this.parallelism * CHUNKS_PER_THREAD, (size + MAX_CHUNK - 1) / MAX_CHUNK);
+        long chunk = Math.max(SCAN_SIZE, (size + chunks - 1) / chunks);
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long from = 0;
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        while (from < size) {
+            long to = from + chunk >= size ? size : this.nextGame(channel, scan, from + chunk, size);
+            bounds.add(to);
+            from = to;
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private long nextGame(FileChannel channel, ByteBuffer scan, long pos, long size) throws IOException {
+        // the pattern may straddle two reads, so every read overlaps the previous one by a few bytes
+        while (pos < size) {
+            scan.clear();
+            int read = channel.read(scan, pos);
+            if (read <= 0) {
+                break;
+            }
+            int found = nextGame(scan, 0, read);
+            if (found < read) {
+                return pos + found;
+            }
+            if (pos + read >= size) {
+                break;
+            }
+            pos += Math.max(1, read - 4);
+        }
+        return size;
+    }
+
+    // the offset of the next '[' that opens a line after a blank line, or end
+    static int nextGame(ByteBuffer buffer, int pos, int end) {
+        for (int i = Math.max(pos, 2); i < end; i++) {
+            if (buffer.get(i) == '[' && buffer.get(i - 1) == '\n'
+                    && (buffer.get(i - 2) == '\n' || buffer.get(i - 2) == '\r' && i >= 3 && buffer.get(i - 3) == '\n')) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    // never serialized, it only runs on the importer's pool
+    @SuppressWarnings("serial")
+    private static class ChunkTask extends RecursiveTask<PgnParser> {
+
+        private FileChannel channel;
+        private ByteBuffer text;
+        private long start;
+        private long end;
+        private Consumer<PgnGame> handler;
+
+        ChunkTask(FileChannel channel, ByteBuffer text, long start, long end, Consumer<PgnGame> handler) {
+            this.channel = channel;
+            this.text = text;
+            this.start = start;
+            this.end = end;
+            this.handler = handler;
+        }
+
+        @Override
+        protected PgnParser compute() {
+            PgnParser parser = new PgnParser();
+            if (this.text != null) {
+                parser.parse(this.text, (int) this.start, (int) this.end, this.handler);
+                return parser;
+            }
+            try {
+                MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.end - this.start);
+                parser.parse(buffer, 0, buffer.limit(), this.handler);
+                return parser;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
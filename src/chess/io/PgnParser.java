@@ -0,0 +1,282 @@
+package chess.io;
+
+import chess.ChesException;
+import chess.ChessMatch;
+import chess.Move;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// parses the games of one chunk of PGN text straight from the bytes. Moves are replayed with makeMove on a single
+// match that is wound back after every game, or on a new one for a game with a FEN tag, and a game with a bad token
+// is skipped up to the next game
+final class PgnParser {
+
+    private ChessMatch initial;
+    private ChessMatch chessMatch;
+    private int[] legal;
+    private int[] moves;
+    private int moveCount;
+    private Map<String, String> tags;
+    private boolean movetext;
+    private boolean failed;
+
+    private long games;
+    private long plies;
+    private long errors;
+
+    PgnParser() {
+        this.initial = new ChessMatch();
+        this.legal = new int[ChessMatch.MAX_MOVES];
+        this.moves = new int[256];
+        this.tags = new LinkedHashMap<>();
+    }
+
+    long getGames() {
+        return games;
+    }
+
+    long getPlies() {
+        return plies;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    void parse(ByteBuffer buffer, int start, int end, Consumer<PgnGame> handler) {
+        int pos = start;
+        boolean lineStart = true;
+        while (pos < end) {
+            byte c = buffer.get(pos);
+            if (c == '\n') {
+                lineStart = true;
+                pos++;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r') {
+                pos++;
+                continue;
+            }
+            if (lineStart && c == '[') {
+                // tags after movetext start the next game, even when the last one had no result token
+                if (this.movetext) {
+                    this.finishGame(null, handler);
+                }
+                pos = this.parseTag(buffer, pos + 1, end);
+                continue;
+            }
+            if (lineStart && c == '%') {
+                pos = skipLine(buffer, pos, end);
+                continue;
+            }
+            lineStart = false;
+            switch (c) {
+                case '{':
+                    pos = skipComment(buffer, pos, end);
+                    break;
+                case ';':
+                    pos = skipLine(buffer, pos, end);
+                    break;
+                case '(':
+                    pos = skipVariation(buffer, pos, end);
+                    break;
+                default:
+                    int tokenEnd = tokenEnd(buffer, pos, end);
+                    this.token(buffer, pos, tokenEnd, handler);
+                    pos = tokenEnd;
+            }
+        }
+        if (this.movetext || !this.tags.isEmpty()) {
+            this.finishGame(null, handler);
+        }
+    }
+
+    private void token(ByteBuffer buffer, int start, int end, Consumer<PgnGame> handler) {
+        this.movetext = true;
+        GameResult result = result(buffer, start, end);
+        if (result != null) {
+            this.finishGame(result, handler);
+            return;
+        }
+        byte first = buffer.get(start);
+        if (first == '$') {
+            return;
+        }
+        // move numbers, also when glued to the move as in 12.e4 or 12...Nf6
+        if (first >= '0' && first <= '9') {
+            int pos = start;
+            while (pos < end && buffer.get(pos) >= '0' && buffer.get(pos) <= '9') {
+                pos++;
+            }
+            if (pos == end || buffer.get(pos) != '.') {
+                this.failed = true;
+                return;
+            }
+            while (pos < end && buffer.get(pos) == '.') {
+                pos++;
+            }
+            start = pos;
+            if (start == end) {
+                return;
+            }
+        }
+        if (this.failed || this.position() == null) {
+            return;
+        }
+        int move = SanParser.parse(this.chessMatch, buffer, start, end, this.legal);
+        if (move == Move.NONE) {
+            this.failed = true;
+            return;
+        }
+        this.chessMatch.makeMove(move);
+        if (this.moveCount == this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moveCount * 2);
+        }
+        this.moves[this.moveCount++] = move;
+    }
+
+    private void finishGame(GameResult result, Consumer<PgnGame> handler) {
+        if (result == null) {
+            result = GameResult.fromNotation(this.tags.getOrDefault("Result", "*"));
+        }
+        if (this.failed || this.position() == null) {
+            this.errors++;
+        } else {
+            this.games++;
+            this.plies += this.moveCount;
+            handler.accept(new PgnGame(new LinkedHashMap<>(this.tags), Arrays.copyOf(this.moves, this.moveCount), result));
+        }
+        if (this.chessMatch == this.initial) {
+            for (int i = 0; i < this.moveCount; i++) {
+                this.chessMatch.undoMove();
+            }
+        }
+        this.chessMatch = null;
+        this.moveCount = 0;
+        this.tags.clear();
+        this.movetext = false;
+        this.failed = false;
+    }
+
+    // the match of the current game, set up on its first move; null for a bad FEN tag
+    private ChessMatch position() {
+        if (this.chessMatch == null && !this.failed) {
+            String fen = this.tags.get("FEN");
+            try {
+                this.chessMatch = fen == null ? this.initial : new ChessMatch(fen);
+            } catch (ChesException e) {
+                this.failed = true;
+            }
+        }
+        return this.chessMatch;
+    }
+
+    // [Name "value"] with \" and \\ escaped in the value; returns the position after the line
+    private int parseTag(ByteBuffer buffer, int pos, int end) {
+        int nameStart = pos;
+        while (pos < end && buffer.get(pos) > ' ' && buffer.get(pos) != '"' && buffer.get(pos) != ']') {
+            pos++;
+        }
+        String name = ascii(buffer, nameStart, pos);
+        while (pos < end && buffer.get(pos) != '"' && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        if (pos < end && buffer.get(pos) == '"') {
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (pos < end && buffer.get(pos) != '"' && buffer.get(pos) != '\n') {
+                if (buffer.get(pos) == '\\' && pos + 1 < end) {
+                    pos++;
+                }
+                value.append((char) (buffer.get(pos) & 0xFF));
+                pos++;
+            }
+            this.tags.put(name, value.toString());
+        } else {
+            this.failed = true;
+        }
+        return skipLine(buffer, pos, end);
+    }
+
+    // null unless the token is one of the four game termination markers
+    private static GameResult result(ByteBuffer buffer, int start, int end) {
+        for (GameResult result : GameResult.values()) {
+            String notation = result.getNotation();
+            if (notation.length() == end - start && matches(buffer, start, notation)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private static int tokenEnd(ByteBuffer buffer, int pos, int end) {
+        int start = pos;
+        while (pos < end) {
+            byte c = buffer.get(pos);
+            if (c <= ' ' || c == '{' || c == '(' || c == ')' || c == ';') {
+                break;
+            }
+            pos++;
+        }
+        // a stray closing parenthesis is a token of its own
+        return pos == start ? pos + 1 : pos;
+    }
+
+    private static int skipLine(ByteBuffer buffer, int pos, int end) {
+        while (pos < end && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipComment(ByteBuffer buffer, int pos, int end) {
+        while (pos < end && buffer.get(pos) != '}') {
+            pos++;
+        }
+        return Math.min(end, pos + 1);
+    }
+
+    // variations may nest and hold comments with parentheses in them
+    private static int skipVariation(ByteBuffer buffer, int pos, int end) {
+        int depth = 0;
+        while (pos < end) {
+            byte c = buffer.get(pos);
+            if (c == '{') {
+                pos = skipComment(buffer, pos, end);
+                continue;
+            }
+            if (c == ';') {
+                pos = skipLine(buffer, pos, end);
+                continue;
+            }
+            pos++;
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                break;
+            }
+        }
+        return pos;
+    }
+}
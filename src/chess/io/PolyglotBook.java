@@ -0,0 +1,145 @@
+package chess.io;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// an opening book in the Polyglot .bin format, probed in place: the file is mapped read-only and binary-searched by
+// key, so a probe copies nothing and the book takes no heap whatever its size. Entries are 16 big-endian bytes,
+// sorted by key:
+//
+//   key:u64 move:u16 weight:u16 learn:u32
+//
+// with the move as to file, to rank, from file and from rank in 3 bits each, then the promotion piece. The mapped
+// buffer is only read with absolute gets, so one book serves any number of threads
+public class PolyglotBook implements Closeable {
+
+    private static final int ENTRY_SIZE = 16;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private FileChannel channel;
+    private ByteBuffer entries;
+    private int size;
+    private PolyglotKey keys;
+
+    // a book hashed with the published Polyglot keys, see PolyglotKey.standard()
+    public PolyglotBook(Path path) throws IOException {
+        this(path, PolyglotKey.standard());
+    }
+
+    public PolyglotBook(Path path, PolyglotKey keys) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        long length = this.channel.size();
+        if (length % ENTRY_SIZE != 0) {
+            this.channel.close();
+            throw new IOException("Not a Polyglot book: " + length + " bytes is not a whole number of entries");
+        }
+        if (length > Integer.MAX_VALUE) {
+            this.channel.close();
+            throw new IOException("Books over 2GB are not supported");
+        }
+        this.entries = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        this.size = (int) (length / ENTRY_SIZE);
+        this.keys = keys;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // the book moves of the position that are legal in it, heaviest first; moves with no weight are kept, as some books
+    // use them to mark lines to avoid
+    public List<BookMove> moves(ChessMatch chessMatch) {
+        long key = this.keys.key(chessMatch);
+        List<BookMove> moves = new ArrayList<>();
+        int[] legal = null;
+        int count = 0;
+        for (int i = this.firstEntry(key); i < this.size && this.entries.getLong(i * ENTRY_SIZE) == key; i++) {
+            if (legal == null) {
+                legal = new int[ChessMatch.MAX_MOVES];
+                count = chessMatch.legalMoves(legal);
+            }
+            int move = this.decode(chessMatch, this.entries.getShort(i * ENTRY_SIZE + 8) & 0xFFFF);
+            // a key collision or a broken book can name moves that are not there
+            if (contains(legal, count, move)) {
+                moves.add(new BookMove(move, this.entries.getShort(i * ENTRY_SIZE + 10) & 0xFFFF));
+            }
+        }
+        moves.sort((a, b) -> Integer.compare(b.getWeight(), a.getWeight()));
+        return moves;
+    }
+
+    // a book move chosen with a probability proportional to its weight, or Move.NONE when the book has none
+    public int pick(ChessMatch chessMatch, Random random) {
+        List<BookMove> moves = this.moves(chessMatch);
+        int total = 0;
+        for (BookMove move : moves) {
+            total += move.getWeight();
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int ticket = random.nextInt(total);
+        for (BookMove move : moves) {
+            ticket -= move.getWeight();
+            if (ticket < 0) {
+                return move.getMove();
+            }
+        }
+        return Move.NONE;
+    }
+
+    // keys are unsigned, and a key can have several entries, one per move
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(this.entries.getLong(middle * ENTRY_SIZE), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int decode(ChessMatch chessMatch, int bookMove) {
+        int to = ChessBoard.square(7 - (bookMove >>> 3 & 7), bookMove & 7);
+        int from = ChessBoard.square(7 - (bookMove >>> 9 & 7), bookMove >>> 6 & 7);
+        int promotion = bookMove >>> 12 & 7;
+        // castling is written as the king taking its own rook
+        ChessPiece piece = chessMatch.getPiece(from);
+        ChessPiece target = chessMatch.getPiece(to);
+        if (piece != null && piece.getType() == PieceType.KING && target != null && target.getColor() == piece.getColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        return promotion == 0 ? Move.encode(from, to) : Move.encode(from, to, TYPES[promotion]);
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,128 @@
+package chess.io;
+
+import chess.ChessBoard;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.Zobrist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// the position hash of the Polyglot book format: 768 piece keys, 4 castling keys, 8 en passant keys and one for white
+// to move. The keys are the fixed random numbers published with the format (Random64 in Polyglot's random.cpp), kept as
+// a copy of that table, as books only match positions hashed with exactly those numbers
+public final class PolyglotKey {
+
+    public static final int SIZE = 781;
+    // the copy of the table standard() reads, on the classpath next to this class
+    public static final String RESOURCE = "polyglot-random64.txt";
+
+    private static final int CASTLING = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int WHITE_TO_MOVE = 780;
+
+    private static volatile PolyglotKey standard;
+
+    private final long[] randoms;
+
+    public PolyglotKey(long[] randoms) {
+        if (randoms.length != SIZE) {
+            throw new IllegalArgumentException("Polyglot keys need " + SIZE + " random numbers, not " + randoms.length);
+        }
+        this.randoms = randoms.clone();
+    }
+
+    // the published table from RESOURCE, read once
+    public static PolyglotKey standard() throws IOException {
+        PolyglotKey keys = standard;
+        if (keys == null) {
+            InputStream in = PolyglotKey.class.getResourceAsStream(RESOURCE);
+            if (in == null) {
+                throw new IOException("The Polyglot random numbers are missing from the classpath: chess/io/" + RESOURCE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.US_ASCII)) {
+                keys = read(reader);
+            }
+            standard = keys;
+        }
+        return keys;
+    }
+
+    // the table as printed in the Polyglot or python-chess sources: hexadecimal numbers with their 0x prefix, anything
+    // in between is ignored
+    public static PolyglotKey read(Path path) throws IOException {
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            return read(in);
+        }
+    }
+
+    public static PolyglotKey read(Reader in) throws IOException {
+        long[] randoms = new long[SIZE];
+        int count = 0;
+        int previous = -1;
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (previous == '0' && (c == 'x' || c == 'X')) {
+                long value = 0;
+                int digits = 0;
+                int digit;
+                while ((c = in.read()) >= 0 && (digit = Character.digit(c, 16)) >= 0) {
+                    value = value << 4 | digit;
+                    digits++;
+                }
+                if (digits == 0 || digits > 16) {
+                    throw new IOException("Bad Polyglot random number after " + count + " numbers");
+                }
+                if (count == SIZE) {
+                    throw new IOException("More than " + SIZE + " Polyglot random numbers");
+                }
+                randoms[count++] = value;
+            }
+            previous = c;
+        }
+        if (count != SIZE) {
+            throw new IOException("Polyglot keys need " + SIZE + " random numbers, found " + count);
+        }
+        return new PolyglotKey(randoms);
+    }
+
+    public long key(ChessMatch chessMatch) {
+        long key = 0L;
+        for (int square = 0; square < ChessBoard.SIZE * ChessBoard.SIZE; square++) {
+            ChessPiece piece = chessMatch.getPiece(square);
+            if (piece != null) {
+                // black pawn, white pawn, black knight, ... with the ranks counted from white's side
+                int kind = 2 * piece.getType().ordinal() + (piece.getColor() == Color.WHITE ? 1 : 0);
+                key ^= this.randoms[64 * kind + 8 * (7 - ChessBoard.row(square)) + ChessBoard.column(square)];
+            }
+        }
+        int rights = chessMatch.getCastlingRights();
+        if ((rights & Zobrist.WHITE_KING_SIDE) != 0) {
+            key ^= this.randoms[CASTLING];
+        }
+        if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) {
+            key ^= this.randoms[CASTLING + 1];
+        }
+        if ((rights & Zobrist.BLACK_KING_SIDE) != 0) {
+            key ^= this.randoms[CASTLING + 2];
+        }
+        if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) {
+            key ^= this.randoms[CASTLING + 3];
+        }
+        // like Polyglot, only when a pawn of the side to move stands next to the pawn that just advanced two squares
+        int enPassant = chessMatch.getEnPassantSquare();
+        if (enPassant >= 0) {
+            key ^= this.randoms[EN_PASSANT + ChessBoard.column(enPassant)];
+        }
+        if (chessMatch.getCurrentPlayer() == Color.WHITE) {
+            key ^= this.randoms[WHITE_TO_MOVE];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,59 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// an opening explorer over a file written by PositionIndexWriter: the table is mapped read-only and a query is one
+// scan of the probing run of the position, so lookups take no heap beyond their answer and need no warm-up whatever
+// the size of the corpus. Buffers are only read with absolute gets, so one index serves any number of threads
+public class PositionIndex implements Closeable {
+
+    private PositionTable table;
+
+    public PositionIndex(Path path) throws IOException {
+        this.table = PositionTable.open(path, false);
+    }
+
+    public long getGames() {
+        return this.table.getGames();
+    }
+
+    public long getEntries() {
+        return this.table.getEntries();
+    }
+
+    // the games that reached the position and the moves played from it, most played first; null when no game did
+    public PositionStats query(ChessMatch chessMatch) {
+        return this.query(chessMatch.getZobristKey());
+    }
+
+    public PositionStats query(long key) {
+        PositionStats position = null;
+        List<MoveStats> moves = new ArrayList<>();
+        for (long slot = this.table.home(key); !this.table.isFree(slot); slot = this.table.next(slot)) {
+            if (this.table.getKey(slot) != key) {
+                continue;
+            }
+            int move = this.table.getTag(slot) & ~PositionTable.OCCUPIED;
+            if (move == Move.NONE) {
+                position = new PositionStats(this.table.getWhite(slot), this.table.getDraws(slot), this.table.getBlack(slot), moves);
+            } else {
+                moves.add(new MoveStats(move, this.table.getWhite(slot), this.table.getDraws(slot), this.table.getBlack(slot)));
+            }
+        }
+        moves.sort(Comparator.comparingLong(MoveStats::getGames).reversed());
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.table.close();
+    }
+}
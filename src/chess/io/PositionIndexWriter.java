@@ -0,0 +1,121 @@
+package chess.io;
+
+import chess.ChessMatch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// builds a PositionIndex: every position a game reaches counts the game's result, and so does the move played from it.
+// Games are replayed by the calling thread and only the table updates are serialized, so the importer's threads can
+// feed one writer. The table doubles, into a new file, whenever it gets too full. Games without a result are skipped
+public class PositionIndexWriter implements Closeable {
+
+    private static final double MAX_LOAD = 0.7;
+    private static final long MIN_CAPACITY = 1 << 12;
+
+    private Path path;
+    private PositionTable table;
+    private long entries;
+    private long games;
+
+    // any existing file is replaced; expectedEntries only sizes the first table
+    public PositionIndexWriter(Path path, long expectedEntries) throws IOException {
+        this.path = path;
+        this.table = PositionTable.create(path, capacity(expectedEntries));
+    }
+
+    public synchronized long getGames() {
+        return games;
+    }
+
+    public synchronized long getEntries() {
+        return entries;
+    }
+
+    public void addGame(PgnGame game) throws IOException {
+        this.addGame(game.newStartPosition(), game.getMoves(), game.getMoveCount(), game.getResult());
+    }
+
+    // plays the moves on chessMatch, which is left at the end of the game
+    public void addGame(ChessMatch chessMatch, int[] moves, int count, GameResult result) throws IOException {
+        if (result == GameResult.UNKNOWN) {
+            return;
+        }
+        long[] keys = new long[count + 1];
+        boolean[] repeated = new boolean[count + 1];
+        for (int ply = 0; ; ply++) {
+            keys[ply] = chessMatch.getZobristKey();
+            // a game counts once for a position it comes back to; repetitions never reach past the halfmove clock
+            for (int back = 2; back <= Math.min(ply, chessMatch.getHalfmoveClock()) && !repeated[ply]; back += 2) {
+                repeated[ply] = keys[ply - back] == keys[ply];
+            }
+            if (ply == count) {
+                break;
+            }
+            chessMatch.makeMove(moves[ply]);
+        }
+
+        synchronized (this) {
+            for (int ply = 0; ply <= count; ply++) {
+                if (repeated[ply]) {
+                    continue;
+                }
+                this.count(keys[ply], PositionTable.OCCUPIED, result);
+                if (ply < count) {
+                    this.count(keys[ply], moves[ply] | PositionTable.OCCUPIED, result);
+                }
+            }
+            this.games++;
+        }
+    }
+
+    private void count(long key, int tag, GameResult result) throws IOException {
+        long slot = this.table.find(key, tag);
+        if (slot < 0) {
+            if (this.entries + 1 > this.table.getCapacity() * MAX_LOAD) {
+                this.grow();
+                slot = this.table.find(key, tag);
+            }
+            slot = -1 - slot;
+            this.table.put(slot, key, tag, 0, 0, 0);
+            this.entries++;
+        }
+        this.table.count(slot, result);
+    }
+
+    // rehashes into a table twice the size next to the old file, which it then replaces
+    private void grow() throws IOException {
+        Path temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        PositionTable larger = PositionTable.create(temporary, this.table.getCapacity() * 2);
+        for (long slot = 0; slot < this.table.getCapacity(); slot++) {
+            if (this.table.isFree(slot)) {
+                continue;
+            }
+            long key = this.table.getKey(slot);
+            int tag = this.table.getTag(slot);
+            larger.put(-1 - larger.find(key, tag), key, tag, this.table.getWhite(slot), this.table.getDraws(slot), this.table.getBlack(slot));
+        }
+        this.table.close();
+        larger.close();
+        Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.table = PositionTable.open(this.path, true);
+    }
+
+    private static long capacity(long expectedEntries) {
+        long capacity = MIN_CAPACITY;
+        while (capacity * MAX_LOAD < expectedEntries) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.table.setCounts(this.entries, this.games);
+        this.table.force();
+        this.table.close();
+    }
+}
@@ -0,0 +1,50 @@
+package chess.io;
+
+import java.util.List;
+
+// the results of the games that reached one position, and what was played from it
+public class PositionStats {
+
+    private int whiteWins;
+    private int draws;
+    private int blackWins;
+    private List<MoveStats> moves;
+
+    public PositionStats(int whiteWins, int draws, int blackWins, List<MoveStats> moves) {
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+        this.moves = moves;
+    }
+
+    public int getWhiteWins() {
+        return whiteWins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getBlackWins() {
+        return blackWins;
+    }
+
+    public long getGames() {
+        return (long) this.whiteWins + this.draws + this.blackWins;
+    }
+
+    // white's points per game, a draw counting half
+    public double getWhiteScore() {
+        return this.getGames() == 0 ? 0.0 : (this.whiteWins + this.draws / 2.0) / this.getGames();
+    }
+
+    // most played first
+    public List<MoveStats> getMoves() {
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return this.getGames() + " games, +" + this.whiteWins + " =" + this.draws + " -" + this.blackWins;
+    }
+}
@@ -0,0 +1,198 @@
+package chess.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// the file behind PositionIndex and PositionIndexWriter, an open addressing hash table mapped straight from disk:
+//
+//   header: "CHPI" version:u32 capacity:u64 entries:u64 games:u64 then zeros up to HEADER_SIZE
+//   entry:  key:u64 tag:u32 white:u32 draws:u32 black:u32
+//
+// all big-endian. The tag is the Move played from the position with OCCUPIED set, or OCCUPIED alone for the totals of
+// the position itself, and an all zero entry is free. The home slot depends on the position key only, so every entry
+// of a position sits in the same run of linear probing and one scan finds them all. The file is mapped in segments of
+// a fixed number of entries, as a single buffer can not pass 2GB
+final class PositionTable implements Closeable {
+
+    static final byte[] MAGIC = {'C', 'H', 'P', 'I'};
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ENTRY_SIZE = 24;
+    static final int OCCUPIED = 1 << 31;
+
+    private static final int SEGMENT_SHIFT = 25;
+    private static final int KEY = 0;
+    private static final int TAG = 8;
+    private static final int WHITE = 12;
+    private static final int DRAWS = 16;
+    private static final int BLACK = 20;
+
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private MappedByteBuffer[] segments;
+    private long capacity;
+    private long mask;
+
+    private PositionTable(FileChannel channel, long capacity, boolean writable) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        this.header = channel.map(mode, 0, HEADER_SIZE);
+        int count = (int) ((capacity + (1L << SEGMENT_SHIFT) - 1) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long first = (long) i << SEGMENT_SHIFT;
+            long entries = Math.min(1L << SEGMENT_SHIFT, capacity - first);
+            this.segments[i] = channel.map(mode, HEADER_SIZE + first * ENTRY_SIZE, entries * ENTRY_SIZE);
+        }
+    }
+
+    // a new empty table; capacity is a power of two
+    static PositionTable create(Path path, long capacity) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // the file stays sparse until entries are written
+            file.setLength(0);
+            file.setLength(HEADER_SIZE + capacity * ENTRY_SIZE);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PositionTable table = new PositionTable(channel, capacity, true);
+        table.header.put(0, MAGIC);
+        table.header.putInt(4, VERSION);
+        table.header.putLong(8, capacity);
+        return table;
+    }
+
+    static PositionTable open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // fill the header
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header.get(i) != MAGIC[i]) {
+                    throw new IOException(path + " is not a position index");
+                }
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(path + " has unsupported position index version " + header.getInt(4));
+            }
+            long capacity = header.getLong(8);
+            if (Long.bitCount(capacity) != 1 || channel.size() != HEADER_SIZE + capacity * ENTRY_SIZE) {
+                throw new IOException(path + " is truncated or damaged");
+            }
+            return new PositionTable(channel, capacity, writable);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    long getEntries() {
+        return this.header.getLong(16);
+    }
+
+    long getGames() {
+        return this.header.getLong(24);
+    }
+
+    void setCounts(long entries, long games) {
+        this.header.putLong(16, entries);
+        this.header.putLong(24, games);
+    }
+
+    long home(long key) {
+        // Zobrist keys are uniform already
+        return (key ^ key >>> 32) & this.mask;
+    }
+
+    long next(long slot) {
+        return (slot + 1) & this.mask;
+    }
+
+    // the slot of the entry, or -1 - the free slot it would go in
+    long find(long key, int tag) {
+        for (long slot = this.home(key); ; slot = this.next(slot)) {
+            int found = this.getTag(slot);
+            if (found == 0) {
+                return -1 - slot;
+            }
+            if (found == tag && this.getKey(slot) == key) {
+                return slot;
+            }
+        }
+    }
+
+    boolean isFree(long slot) {
+        return this.getTag(slot) == 0;
+    }
+
+    long getKey(long slot) {
+        return this.segment(slot).getLong(offset(slot) + KEY);
+    }
+
+    int getTag(long slot) {
+        return this.segment(slot).getInt(offset(slot) + TAG);
+    }
+
+    int getWhite(long slot) {
+        return this.segment(slot).getInt(offset(slot) + WHITE);
+    }
+
+    int getDraws(long slot) {
+        return this.segment(slot).getInt(offset(slot) + DRAWS);
+    }
+
+    int getBlack(long slot) {
+        return this.segment(slot).getInt(offset(slot) + BLACK);
+    }
+
+    void put(long slot, long key, int tag, int white, int draws, int black) {
+        ByteBuffer segment = this.segment(slot);
+        int offset = offset(slot);
+        segment.putLong(offset + KEY, key);
+        segment.putInt(offset + TAG, tag);
+        segment.putInt(offset + WHITE, white);
+        segment.putInt(offset + DRAWS, draws);
+        segment.putInt(offset + BLACK, black);
+    }
+
+    void count(long slot, GameResult result) {
+        ByteBuffer segment = this.segment(slot);
+        int offset = offset(slot) + (result == GameResult.WHITE_WINS ? WHITE : result == GameResult.DRAW ? DRAWS : BLACK);
+        segment.putInt(offset, segment.getInt(offset) + 1);
+    }
+
+    void force() {
+        this.header.force();
+        for (MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return this.segments[(int) (slot >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * ENTRY_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
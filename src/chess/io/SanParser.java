@@ -0,0 +1,133 @@
+package chess.io;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.PieceType;
+
+import java.nio.ByteBuffer;
+
+// resolves a SAN token against the legal moves of the position, so only the parts the notation needs are parsed:
+// piece, target square, disambiguation and promotion. Failures return Move.NONE instead of throwing, as the importer
+// meets broken games often enough for exceptions to cost real time
+final class SanParser {
+
+    private SanParser() {
+    }
+
+    // the token is buffer[start, end); legal is scratch space for the generator
+    static int parse(ChessMatch chessMatch, ByteBuffer buffer, int start, int end, int[] legal) {
+        // check, mate and annotation marks
+        while (end > start && isSuffix(buffer.get(end - 1))) {
+            end--;
+        }
+        if (end - start >= 6 && buffer.get(end - 4) == 'e' && buffer.get(end - 3) == '.' && buffer.get(end - 1) == '.') {
+            end -= 4;
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int count = chessMatch.legalMoves(legal);
+
+        byte first = buffer.get(start);
+        if (first == 'O' || first == '0') {
+            return castling(chessMatch, legal, count, end - start >= 5);
+        }
+
+        PieceType type = pieceType(first);
+        if (type != null) {
+            start++;
+        } else {
+            type = PieceType.PAWN;
+        }
+
+        PieceType promotion = null;
+        if (type == PieceType.PAWN && end - start >= 3 && pieceType(buffer.get(end - 1)) != null) {
+            promotion = pieceType(buffer.get(end - 1));
+            end--;
+            if (buffer.get(end - 1) == '=') {
+                end--;
+            }
+        }
+
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int file = buffer.get(end - 2) - 'a';
+        int rank = buffer.get(end - 1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return Move.NONE;
+        }
+        int target = (7 - rank) * 8 + file;
+        end -= 2;
+
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end; i++) {
+            byte c = buffer.get(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = legal[i];
+            int from = Move.getFrom(move);
+            if (Move.getTo(move) != target
+                    || fromFile >= 0 && from % 8 != fromFile
+                    || fromRank >= 0 && 7 - from / 8 != fromRank
+                    || chessMatch.getPiece(from).getType() != type) {
+                continue;
+            }
+            PieceType movePromotion = Move.getPromotion(move);
+            // a promotion written without its piece is taken as a queen
+            if (movePromotion != (promotion == null && movePromotion != null ? PieceType.QUEEN : promotion)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                // ambiguous
+                return Move.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static int castling(ChessMatch chessMatch, int[] legal, int count, boolean queenSide) {
+        for (int i = 0; i < count; i++) {
+            int move = legal[i];
+            ChessPiece piece = chessMatch.getPiece(Move.getFrom(move));
+            int step = Move.getTo(move) - Move.getFrom(move);
+            if (piece.getType() == PieceType.KING && step == (queenSide ? -2 : 2)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static PieceType pieceType(byte letter) {
+        switch (letter) {
+            case 'N':
+                return PieceType.KNIGHT;
+            case 'B':
+                return PieceType.BISHOP;
+            case 'R':
+                return PieceType.ROOK;
+            case 'Q':
+                return PieceType.QUEEN;
+            case 'K':
+                return PieceType.KING;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isSuffix(byte c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+}
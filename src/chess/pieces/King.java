@@ -1,10 +1,12 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 
@@ -15,101 +17,50 @@ public class King extends ChessPiece {
     }
 
     @Override
-    public String toString() {
-        return "K";
+    public PieceType getType() {
+        return PieceType.KING;
     }
 
-    private boolean canMove(Position position) {
-        ChessPiece p = (ChessPiece) this.getBoard().piece(position);
-        return p == null || p.getColor() != this.getColor();
+    @Override
+    public String toString() {
+        return "K";
     }
 
-    private boolean testRookCastling(Position position) {
-        ChessPiece p = (ChessPiece) this.getBoard().piece(position);
+    private boolean testRookCastling(int column) {
+        if (column < 0 || column >= ChessBoard.SIZE) {
+            return false;
+        }
+        ChessPiece p = this.getChessBoard().piece(ChessBoard.square(this.position.getRow(), column));
         return p != null && p instanceof Rook && p.getColor() == this.getColor() && p.getMoveCount() == 0;
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[this.getBoard().getRows()][this.getBoard().getColumns()];
+    public long possibleMovesMask() {
+        ChessBoard board = this.getChessBoard();
+        int square = this.getSquare();
+        long targets = Attacks.kingAttacks(square) & ~board.getOccupied(this.getColor());
 
-        Position p = new Position(0,0);
-
-        // above
-        p.setValues(this.position.getRow() - 1, position.getColumn());
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // below
-        p.setValues(this.position.getRow() + 1, position.getColumn());
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // left
-        p.setValues(this.position.getRow(), position.getColumn() - 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // right
-        p.setValues(this.position.getRow(), position.getColumn() + 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // nw
-        p.setValues(this.position.getRow() - 1, position.getColumn() - 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // ne
-        p.setValues(this.position.getRow() - 1, position.getColumn() + 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // sw
-        p.setValues(this.position.getRow() + 1, position.getColumn() - 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // se
-        p.setValues(this.position.getRow() + 1, position.getColumn() + 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        // castling
-        if (this.getMoveCount() == 0 && !chessMatch.isCheckmate()) {
+        // castling, never out of check nor through an attacked square; the square the king lands on is left to the
+        // check test every move gets
+        Color opponent = this.getColor() == Color.WHITE ? Color.BLACK : Color.WHITE;
+        if (this.getMoveCount() == 0 && !chessMatch.isCheckmate() && !board.isAttacked(square, opponent)) {
 
             //castling king side rook
-            Position rook1Position = new Position(this.position.getRow(), this.position.getColumn() + 3);
-            if (this.testRookCastling(rook1Position)) {
-                Position p1 = new Position(this.position.getRow(), this.position.getColumn() + 1);
-                Position p2 = new Position(this.position.getRow(), this.position.getColumn() + 2);
-
-                if (this.getBoard().piece(p1) == null && this.getBoard().piece(p2) == null) {
-                    mat[this.position.getRow()][this.position.getColumn() + 2] = true;
+            if (this.testRookCastling(this.position.getColumn() + 3)) {
+                if (!board.isOccupied(square + 1) && !board.isOccupied(square + 2) && !board.isAttacked(square + 1, opponent)) {
+                    targets |= ChessBoard.bit(square + 2);
                 }
             }
 
             //castling queen side rook
-            Position rook2Position = new Position(this.position.getRow(), this.position.getColumn() - 4);
-            if (this.testRookCastling(rook2Position)) {
-                Position p1 = new Position(this.position.getRow(), this.position.getColumn() - 1);
-                Position p2 = new Position(this.position.getRow(), this.position.getColumn() - 2);
-                Position p3 = new Position(this.position.getRow(), this.position.getColumn() - 3);
-
-                if (this.getBoard().piece(p1) == null && this.getBoard().piece(p2) == null && this.getBoard().piece(p3) == null) {
-                    mat[this.position.getRow()][this.position.getColumn() - 2] = true;
+            if (this.testRookCastling(this.position.getColumn() - 4)) {
+                if (!board.isOccupied(square - 1) && !board.isOccupied(square - 2) && !board.isOccupied(square - 3)
+                        && !board.isAttacked(square - 1, opponent)) {
+                    targets |= ChessBoard.bit(square - 2);
                 }
             }
         }
 
-        return mat;
+        return targets;
     }
 }
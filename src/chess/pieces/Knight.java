@@ -1,9 +1,10 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Knight extends ChessPiece {
 
@@ -12,71 +13,18 @@ public class Knight extends ChessPiece {
     }
 
     @Override
-    public String toString() {
-        return "N";
+    public PieceType getType() {
+        return PieceType.KNIGHT;
     }
 
-
-    private boolean canMove(Position position) {
-        ChessPiece p = (ChessPiece) this.getBoard().piece(position);
-        return p == null || p.getColor() != this.getColor();
+    @Override
+    public String toString() {
+        return "N";
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-        boolean[][] mat = new boolean[this.getBoard().getRows()][this.getBoard().getColumns()];
-
-        Position p = new Position(0,0);
-
-
-        p.setValues(this.position.getRow() - 1, position.getColumn() - 2);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() - 2, position.getColumn() - 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() - 2, position.getColumn() + 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() - 1, position.getColumn() + 2);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() + 1, position.getColumn() + 2);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() + 2, position.getColumn() + 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() + 2, position.getColumn() - 1);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-
-        p.setValues(this.position.getRow() + 1, position.getColumn() - 2);
-        if (this.getBoard().positionExists(p) && this.canMove(p)) {
-            mat[p.getRow()][p.getColumn()] = true;
-        }
-
-        return mat;
-
+    public long possibleMovesMask() {
+        long targets = Attacks.knightAttacks(this.getSquare()) & ~this.getChessBoard().getOccupied(this.getColor());
+        return targets;
     }
 }
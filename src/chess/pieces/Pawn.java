@@ -1,10 +1,12 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.ChessBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 
@@ -14,81 +16,48 @@ public class Pawn extends ChessPiece {
         this.chessMatch = chessMatch;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     @Override
     public String toString() {
         return "P";
     }
 
     @Override
-    public boolean[][] possibleMoves() {
-
-        boolean mat[][] = new boolean[this.getBoard().getRows()][this.getBoard().getColumns()];
-
-        Position p = new Position(0, 0);
-
-        if (this.getColor() == Color.WHITE) {
-            p.setValues(this.position.getRow() - 1, this.position.getColumn());
-            if (this.getBoard().positionExists(p) && !this.getBoard().thereIsAPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() - 2, this.position.getColumn());
-            Position p2 = new Position(this.position.getRow() - 1, this.position.getColumn());
-            if (this.getBoard().positionExists(p) && !this.getBoard().thereIsAPiece(p) && this.getBoard().positionExists(p2) && !this.getBoard().thereIsAPiece(p2) && this.getMoveCount() == 0) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() - 1, this.position.getColumn() - 1);
-            if (this.getBoard().positionExists(p) && this.isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() - 1, this.position.getColumn() + 1);
-            if (this.getBoard().positionExists(p) && this.isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-
-            // en passant movement
-            if (this.position.getRow() == 3) {
-                Position left = new Position(position.getRow(), position.getColumn() - 1);
-                if (this.getBoard().positionExists(left) && this.isThereOpponentPiece(left) && this.getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                    mat[left.getRow() - 1][left.getColumn()] = true;
-                }
-                Position right = new Position(position.getRow(), position.getColumn() + 1);
-                if (this.getBoard().positionExists(right) && this.isThereOpponentPiece(right) && this.getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                    mat[right.getRow() - 1][right.getColumn()] = true;
-                }
+    public long possibleMovesMask() {
+        ChessBoard board = this.getChessBoard();
+        int square = this.getSquare();
+        int forward = this.getColor() == Color.WHITE ? -ChessBoard.SIZE : ChessBoard.SIZE;
+        Color opponent = this.getColor() == Color.WHITE ? Color.BLACK : Color.WHITE;
+        long targets = 0L;
+
+        int one = square + forward;
+        if (one >= 0 && one < 64 && !board.isOccupied(one)) {
+            targets |= ChessBoard.bit(one);
+            int two = one + forward;
+            if (this.getMoveCount() == 0 && two >= 0 && two < 64 && !board.isOccupied(two)) {
+                targets |= ChessBoard.bit(two);
             }
+        }
 
-        } else {
-            p.setValues(this.position.getRow() + 1, this.position.getColumn());
-            if (this.getBoard().positionExists(p) && !this.getBoard().thereIsAPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() + 2, this.position.getColumn());
-            Position p2 = new Position(this.position.getRow() + 1, this.position.getColumn());
-            if (this.getBoard().positionExists(p) && !this.getBoard().thereIsAPiece(p) && this.getBoard().positionExists(p2) && !this.getBoard().thereIsAPiece(p2) && this.getMoveCount() == 0) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() + 1, this.position.getColumn() - 1);
-            if (this.getBoard().positionExists(p) && this.isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
-            p.setValues(this.position.getRow() + 1, this.position.getColumn() + 1);
-            if (this.getBoard().positionExists(p) && this.isThereOpponentPiece(p)) {
-                mat[p.getRow()][p.getColumn()] = true;
-            }
+        long attacks = Attacks.pawnAttacks(this.getColor(), square);
+        targets |= attacks & board.getOccupied(opponent);
 
-            // en passant movement
-            if (this.position.getRow() == 4) {
-                Position left = new Position(position.getRow(), position.getColumn() - 1);
-                if (this.getBoard().positionExists(left) && this.isThereOpponentPiece(left) && this.getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-                    mat[left.getRow() + 1][left.getColumn()] = true;
-                }
-                Position right = new Position(position.getRow(), position.getColumn() + 1);
-                if (this.getBoard().positionExists(right) && this.isThereOpponentPiece(right) && this.getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-                    mat[right.getRow() + 1][right.getColumn()] = true;
+        // en passant movement
+        ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+        if (vulnerable != null && vulnerable.getColor() == opponent) {
+            while (attacks != 0) {
+                int target = Long.numberOfTrailingZeros(attacks);
+                if (board.piece(target - forward) == vulnerable) {
+                    targets |= ChessBoard.bit(target);
                 }
+                attacks &= attacks - 1;
             }
         }
 
-        return mat;
+        return targets;
     }
 }